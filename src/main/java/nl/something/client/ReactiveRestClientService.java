@@ -0,0 +1,184 @@
+package nl.something.client;
+
+import nl.something.client.reactive.JsonElementPublisher;
+import nl.something.client.reactive.SingleResponsePublisher;
+import nl.something.client.response.converter.ResponseBody;
+import nl.something.client.response.converter.ResponseConverterFactory;
+import nl.something.client.response.converter.memo.ConversionMemoizer;
+import nl.something.exceptions.RestCallException;
+import nl.something.exceptions.RestCallResponseException;
+import nl.something.exceptions.RestCallTimeoutException;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.message.BasicHeader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+/**
+ * Executes REST-calls without blocking a thread, on top of the non-blocking HTTP client of the JDK. Calls are exposed as {@link Flow.Publisher}s that only
+ * start the call once the subscriber requests data, so they compose with Reactive Streams libraries without wrapping blocking calls.
+ * <p>
+ * Only the base URL, the timeout and the conversion memoizer of the configuration apply. Reactive calls bypass the rate limits, the request scheduler, the
+ * response cache, the access log and tracing of {@link RestClientService}.
+ */
+public class ReactiveRestClientService {
+    private final String baseUrl;
+    private final int timeout;
+    private final ConversionMemoizer conversionMemoizer;
+    private final HttpClient httpClient;
+
+    public ReactiveRestClientService(@NotNull final RestClientServiceConfiguration configuration) {
+        this.baseUrl = configuration.getBaseUrl();
+        this.timeout = configuration.getTimeout();
+        this.conversionMemoizer = configuration.getConversionMemoizer();
+        final HttpClient.Builder builder = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1);
+        if (timeout != -1) {
+            builder.connectTimeout(Duration.ofMillis(timeout));
+        }
+        this.httpClient = builder.build();
+    }
+
+    /**
+     * Publishes the converted response of the request as a single element.
+     *
+     * @param request The request to execute
+     * @return A publisher that executes the request for every subscriber, signalling a {@link RestCallException} in case the call failed
+     */
+    @NotNull
+    public <T> Flow.Publisher<RestClientResponse<T>> publish(@NotNull final RestClientRequest<T> request) {
+        final String url = determineUrl(request);
+        return new SingleResponsePublisher<>(() -> {
+            final CompletableFuture<HttpResponse<byte[]>> call = httpClient.sendAsync(buildRequest(request, url), HttpResponse.BodyHandlers.ofByteArray());
+            return cancelling(call, call
+                .thenApply(response -> convert(response, request, url))
+                .exceptionally(e -> {
+                    throw new CompletionException(toRestCallException(e, url));
+                }));
+        });
+    }
+
+    /**
+     * Publishes the elements of a top-level JSON array, or of a newline delimited JSON body, one by one as they are read from the connection. The body is
+     * only read as fast as the subscriber requests elements.
+     *
+     * @param request The request to execute, its response type is the type of a single element
+     * @return A publisher that executes the request for every subscriber, signalling a {@link RestCallException} in case the call failed
+     */
+    @NotNull
+    public <T> Flow.Publisher<T> publishElements(@NotNull final RestClientRequest<T> request) {
+        final String url = determineUrl(request);
+        return new JsonElementPublisher<>(() -> httpClient.sendAsync(buildRequest(request, url), HttpResponse.BodyHandlers.ofPublisher())
+            .thenCompose(response -> response.statusCode() >= 400
+                ? failWithErrorResponse(response)
+                : CompletableFuture.completedFuture(response.body())),
+            request.getResponseType(), e -> toRestCallException(e, url));
+    }
+
+    /**
+     * Cancelling a future derived from the call does not cancel the call itself, so the call is cancelled once the derived future is
+     *
+     * @param call The future returned by the HTTP client
+     * @param derived The future derived from the call that is handed out
+     * @return The derived future
+     */
+    @NotNull
+    private static <T> CompletableFuture<T> cancelling(@NotNull final CompletableFuture<?> call, @NotNull final CompletableFuture<T> derived) {
+        derived.whenComplete((value, e) -> {
+            if (derived.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return derived;
+    }
+
+    @NotNull
+    private <T> String determineUrl(@NotNull final RestClientRequest<T> request) {
+        return baseUrl + RestClientService.normalizePath(request.getPath()) + RestClientService.determineQueryString(request);
+    }
+
+    @NotNull
+    private <T> HttpRequest buildRequest(@NotNull final RestClientRequest<T> request, @NotNull final String url) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url));
+        if (timeout != -1) {
+            builder.timeout(Duration.ofMillis(timeout));
+        }
+        final Object body = request.getBody();
+        final HttpRequest.BodyPublisher bodyPublisher = body == null
+            ? HttpRequest.BodyPublishers.noBody()
+            : RestClientService.encodeRequestBody(body, text -> HttpRequest.BodyPublishers.ofString(text, StandardCharsets.UTF_8),
+                HttpRequest.BodyPublishers::ofByteArray, builder::setHeader);
+        request.getHeaders().forEach(builder::header);
+        return builder.method(request.getMethod(), bodyPublisher).build();
+    }
+
+    @NotNull
+    private <T> RestClientResponse<T> convert(@NotNull final HttpResponse<byte[]> response, @NotNull final RestClientRequest<T> request,
+                                              @NotNull final String url) {
+        final String contentType = response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse(null);
+        try (final ResponseBody responseBody = new ResponseBody(ByteBuffer.wrap(response.body()), RestClientService.determineCharset(contentType), null)) {
+            if (response.statusCode() >= 400) {
+                throw new RestCallResponseException(response.statusCode(), reasonPhrase(response.statusCode()), contentType, responseBody.asString());
+            }
+            final T value = conversionMemoizer == null
+                ? ResponseConverterFactory.convert(responseBody, contentType, request.getResponseType())
+                : conversionMemoizer.convert(responseBody, contentType, request.getResponseType());
+            return new RestClientResponse<>(response.statusCode(), value, toHeaders(response));
+        } catch (final IOException e) {
+            throw new CompletionException(RestClientService.toRestCallException(e, url));
+        }
+    }
+
+    @NotNull
+    private static CompletableFuture<Flow.Publisher<List<ByteBuffer>>> failWithErrorResponse(
+        @NotNull final HttpResponse<Flow.Publisher<List<ByteBuffer>>> response) {
+        final HttpResponse.BodySubscriber<String> subscriber = HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+        response.body().subscribe(subscriber);
+        return subscriber.getBody().toCompletableFuture().thenApply(body -> {
+            final String contentType = response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse(null);
+            throw new CompletionException(new RestCallResponseException(response.statusCode(), reasonPhrase(response.statusCode()), contentType, body));
+        });
+    }
+
+    @NotNull
+    private static Header[] toHeaders(@NotNull final HttpResponse<?> response) {
+        final List<Header> headers = new ArrayList<>();
+        response.headers().map().forEach((name, values) -> values.forEach(value -> headers.add(new BasicHeader(name, value))));
+        return headers.toArray(new Header[0]);
+    }
+
+    /**
+     * The JDK client does not expose the reason phrase, so the standard phrase of the status code is used
+     */
+    @NotNull
+    private static String reasonPhrase(final int statusCode) {
+        final String reasonPhrase = org.apache.http.impl.EnglishReasonPhraseCatalog.INSTANCE.getReason(statusCode, null);
+        return reasonPhrase == null ? String.valueOf(statusCode) : reasonPhrase;
+    }
+
+    @NotNull
+    private static RestCallException toRestCallException(@Nullable final Throwable e, @NotNull final String url) {
+        final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RestCallException) {
+            return (RestCallException) cause;
+        }
+        if (cause instanceof HttpTimeoutException) {
+            return new RestCallTimeoutException(url, cause);
+        }
+        return new RestCallException("Failed to retrieve the requested data from the api for URL " + url, cause);
+    }
+}
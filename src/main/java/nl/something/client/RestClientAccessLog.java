@@ -0,0 +1,52 @@
+package nl.something.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one key=value line per call to the {@code nl.something.client.access} logger, so it can be routed to its own (asynchronous) appender.
+ * Regular calls are logged at INFO for the configured sample of calls, calls slower than the threshold are always logged at WARN. Messages are only
+ * formatted once it is known they will be written, and only immutable arguments are passed to the logger.
+ */
+@Slf4j(topic = "nl.something.client.access")
+class RestClientAccessLog {
+    private static final String MESSAGE_FORMAT = "method={} url={} status={} elapsedMs={}";
+
+    private final Logger logger;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    RestClientAccessLog(final double sampleRate, final long slowThreshold) {
+        this(log, sampleRate, slowThreshold);
+    }
+
+    RestClientAccessLog(@NotNull final Logger logger, final double sampleRate, final long slowThreshold) {
+        this.logger = logger;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(slowThreshold);
+    }
+
+    /**
+     * @param method The HTTP method of the call
+     * @param url The URL of the call
+     * @param statusCode The status code of the response, or -1 when no response was received
+     * @param elapsedNanos The time between sending the request and receiving the response headers
+     */
+    void log(@NotNull final String method, @NotNull final String url, final int statusCode, final long elapsedNanos) {
+        if (elapsedNanos >= slowThresholdNanos) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(MESSAGE_FORMAT + " slow=true", method, url, statusCode, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            }
+        } else if (logger.isInfoEnabled() && isSampled()) {
+            logger.info(MESSAGE_FORMAT, method, url, statusCode, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    private boolean isSampled() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
@@ -0,0 +1,10 @@
+package nl.something.client;
+
+/**
+ * The priority with which a request gets a connection when the service limits the number of concurrent requests, from the highest to the lowest
+ */
+public enum RestClientPriority {
+    INTERACTIVE,
+    DEFAULT,
+    BACKGROUND
+}
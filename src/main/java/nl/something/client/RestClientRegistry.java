@@ -0,0 +1,113 @@
+package nl.something.client;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.something.client.buffer.ByteBufferPool;
+import nl.something.client.connection.PooledTransport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the services of all backends, which execute their requests on a single shared connection pool and read their responses into a single shared
+ * buffer pool. A service is a lightweight view over the pools, with its own base URL, timeouts, rate limits and connection limit.
+ *
+ * Registering a backend under a name that is already in use replaces its service. The replaced service rejects new requests, while its requests that are
+ * executing complete on the shared pool, so reconfiguring a backend does not drop any requests. Callers should therefore look up the service on every use
+ * instead of holding on to it.
+ */
+@Slf4j
+public class RestClientRegistry implements Closeable {
+    private final ConcurrentHashMap<String, RestClientService> services = new ConcurrentHashMap<>();
+    private final List<RestClientService> retired = new ArrayList<>();
+    private final PooledTransport transport;
+    private final long closeGracePeriod;
+    private volatile boolean closed;
+
+    public RestClientRegistry(@NotNull final RestClientRegistryConfiguration configuration) {
+        this.transport = new PooledTransport(configuration.getMaxConnections(), configuration.getMaxConnectionsPerRoute(), configuration.getDnsCacheTtl(),
+            new ByteBufferPool(configuration.getBufferPoolMaxBufferSize(), configuration.getBufferPoolMaxPooledBytes(), configuration.isBufferPoolDirect()));
+        this.closeGracePeriod = configuration.getCloseGracePeriod();
+    }
+
+    /**
+     * Registers the backend with the given name, replacing an earlier registration. The service is created and warmed up before it replaces the earlier
+     * registration, which keeps serving requests in the meantime.
+     *
+     * @param name The name the backend is looked up with
+     * @param configuration The configuration of the backend
+     * @return The service of the backend
+     * @throws IOException In case the service could not be created, an earlier registration is kept in that case
+     */
+    @NotNull
+    public RestClientService register(@NotNull final String name, @NotNull final RestClientServiceConfiguration configuration) throws IOException {
+        if (closed) {
+            throw new IOException("The registry has been closed, unable to register " + name);
+        }
+        final RestClientService service = new RestClientService(configuration, transport, false);
+        service.warmUp();
+        synchronized (this) {
+            if (closed) {
+                service.stopAccepting();
+                throw new IOException("The registry has been closed, unable to register " + name);
+            }
+            retire(services.put(name, service));
+        }
+        return service;
+    }
+
+    /**
+     * @return The service of the backend with the given name, or null when no such backend has been registered
+     */
+    @Nullable
+    public RestClientService get(@NotNull final String name) {
+        return services.get(name);
+    }
+
+    /**
+     * Removes the backend with the given name, its requests that are executing complete normally
+     */
+    public synchronized void unregister(@NotNull final String name) {
+        retire(services.remove(name));
+    }
+
+    @NotNull
+    PooledTransport getTransport() {
+        return transport;
+    }
+
+    private void retire(@Nullable final RestClientService service) {
+        if (service == null) {
+            return;
+        }
+        service.stopAccepting();
+        retired.removeIf(previous -> previous.awaitInFlight(0));
+        retired.add(service);
+    }
+
+    /**
+     * Stops accepting requests, waits for the requests that are executing to complete for at most the configured grace period and closes the pool
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        final List<RestClientService> closing = new ArrayList<>(services.values());
+        services.clear();
+        closing.addAll(retired);
+        retired.clear();
+        closing.forEach(RestClientService::stopAccepting);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(closeGracePeriod);
+        for (final RestClientService service : closing) {
+            if (!service.awaitInFlight(Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())))) {
+                log.warn("Closing the shared connection pool while requests are still executing");
+                break;
+            }
+        }
+        transport.close();
+    }
+}
@@ -0,0 +1,53 @@
+package nl.something.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Builder
+public class RestClientRegistryConfiguration {
+    /**
+     * The maximum number of connections shared by all backends
+     */
+    @Builder.Default
+    private final int maxConnections = 200;
+    /**
+     * The maximum number of connections per backend, unless the configuration of the backend specifies its own maximum
+     */
+    @Builder.Default
+    private final int maxConnectionsPerRoute = 20;
+    /**
+     * The time in milliseconds resolved host addresses are cached (0 to disable caching)
+     */
+    @Builder.Default
+    private final long dnsCacheTtl = 0;
+    /**
+     * The size in bytes of the largest response body buffer that is reused, larger bodies get a buffer of their own
+     */
+    @Builder.Default
+    private final int bufferPoolMaxBufferSize = 1024 * 1024;
+    /**
+     * The maximum number of bytes held by response body buffers that are kept for reuse, shared by all backends
+     */
+    @Builder.Default
+    private final long bufferPoolMaxPooledBytes = 16 * 1024 * 1024;
+    /**
+     * Whether response bodies are read into direct (off-heap) buffers
+     */
+    @Builder.Default
+    private final boolean bufferPoolDirect = false;
+    /**
+     * The maximum time in milliseconds closing the registry waits for requests that are still executing
+     */
+    @Builder.Default
+    private final long closeGracePeriod = 30000;
+
+    /**
+     * @return A configuration builder initialized with the defaults
+     */
+    public static RestClientRegistryConfigurationBuilder create() {
+        return new RestClientRegistryConfigurationBuilder();
+    }
+}
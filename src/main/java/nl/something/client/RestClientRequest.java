@@ -57,6 +57,25 @@ public class RestClientRequest<T> {
     @Builder.Default
     private final RestClientParameterHandling parameterHandling = RestClientParameterHandling.OVERWRITE;
 
+    /**
+     * Whether the response may be served from and stored in the response cache of the service (only applies to GET requests)
+     */
+    @Builder.Default
+    private final boolean cacheable = false;
+
+    /**
+     * The priority with which the request gets a connection when the service limits the number of concurrent requests
+     */
+    @Builder.Default
+    private final RestClientPriority priority = RestClientPriority.DEFAULT;
+
+    /**
+     * The time in milliseconds since the epoch after which the response is no longer useful (0 for no deadline), the request is not sent once it has
+     * passed and the timeout of the request is shortened to it
+     */
+    @Builder.Default
+    private final long deadline = 0;
+
     /**
      * Build a request with the given method name
      *
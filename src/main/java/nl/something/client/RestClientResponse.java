@@ -1,14 +1,23 @@
 package nl.something.client;
 
+import org.apache.http.Header;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class RestClientResponse<T> {
     private final int statusCode;
     private final T value;
+    private final Header[] rawHeaders;
+    private RestClientResponseHeaders headers;
 
     public RestClientResponse(final int statusCode, @NotNull final T value) {
+        this(statusCode, value, null);
+    }
+
+    public RestClientResponse(final int statusCode, @NotNull final T value, @Nullable final Header[] headers) {
         this.statusCode = statusCode;
         this.value = value;
+        this.rawHeaders = headers;
     }
 
     public int getStatusCode() {
@@ -19,4 +28,15 @@ public class RestClientResponse<T> {
     public T getValue() {
         return value;
     }
+
+    /**
+     * @return The headers of the response, the view is only created when asked for
+     */
+    @NotNull
+    public RestClientResponseHeaders getHeaders() {
+        if (headers == null) {
+            headers = new RestClientResponseHeaders(rawHeaders);
+        }
+        return headers;
+    }
 }
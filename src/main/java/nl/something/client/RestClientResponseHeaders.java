@@ -0,0 +1,76 @@
+package nl.something.client;
+
+import org.apache.http.Header;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read-only view over the headers of a response. Lookups scan the header array that was received, header names are matched case-insensitively.
+ */
+public class RestClientResponseHeaders {
+    private static final Header[] NO_HEADERS = new Header[0];
+
+    private final Header[] headers;
+
+    RestClientResponseHeaders(@Nullable final Header[] headers) {
+        this.headers = headers == null ? NO_HEADERS : headers;
+    }
+
+    /**
+     * @param name The name of the header
+     * @return The value of the first header with the given name, or null if it is absent
+     */
+    @Nullable
+    public String getFirst(@NotNull final String name) {
+        for (final Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param name The name of the header
+     * @return The values of all headers with the given name, in the order they were received
+     */
+    @NotNull
+    public List<String> getAll(@NotNull final String name) {
+        List<String> values = Collections.emptyList();
+        for (final Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                if (values.isEmpty()) {
+                    values = new ArrayList<>(2);
+                }
+                values.add(header.getValue());
+            }
+        }
+        return values;
+    }
+
+    public boolean contains(@NotNull final String name) {
+        return getFirst(name) != null;
+    }
+
+    /**
+     * @return The names of all received headers, in the order they were received
+     */
+    @NotNull
+    public Set<String> getNames() {
+        final Set<String> names = new LinkedHashSet<>();
+        for (final Header header : headers) {
+            names.add(header.getName());
+        }
+        return names;
+    }
+
+    public int size() {
+        return headers.length;
+    }
+}
@@ -1,36 +1,81 @@
 package nl.something.client;
 
 import lombok.extern.slf4j.Slf4j;
+import nl.something.client.buffer.ByteBufferPool;
+import nl.something.client.buffer.ByteBufferPoolMetrics;
+import nl.something.client.cache.CachedResponse;
+import nl.something.client.cache.ResponseCache;
+import nl.something.client.connection.ConnectionWarmer;
+import nl.something.client.connection.PooledTransport;
+import nl.something.client.ratelimit.TokenBucketRateLimiter;
+import nl.something.client.scheduling.PrioritizedRequestScheduler;
+import nl.something.client.response.converter.ResponseBody;
 import nl.something.client.response.converter.ResponseConverterFactory;
+import nl.something.client.response.converter.memo.ConversionMemoizer;
+import nl.something.client.response.converter.impl.JsonElementIterator;
+import nl.something.client.timeout.HashedWheelTimer;
+import nl.something.client.tracing.RestClientTracer;
+import nl.something.client.tracing.SpanRecorder;
+import nl.something.client.tracing.TraceContext;
+import nl.something.exceptions.RestCallConversionException;
+import nl.something.exceptions.RestCallDeadlineExceededException;
 import nl.something.exceptions.RestCallException;
+import nl.something.exceptions.RestCallRateLimitException;
 import nl.something.exceptions.RestCallResponseException;
 import nl.something.exceptions.RestCallTimeoutException;
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
 import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.io.EmptyInputStream;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.protocol.HTTP;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -38,62 +83,772 @@ import java.util.stream.Collectors;
  * It communicates with a URL that is constructed from the in the OSGI configuration specified base URL, the path that is given by the calling method.
  */
 @Slf4j
-public class RestClientService {
+public class RestClientService implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    /**
+     * The largest body that fits in a buffer, some VMs reserve header words in arrays
+     */
+    private static final int MAX_BODY_SIZE = Integer.MAX_VALUE - 8;
+
     private final String baseUrl;
-    private CloseableHttpClient httpClient;
+    private final int timeout;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final Map<String, TokenBucketRateLimiter> routeRateLimiters;
+    private final long rateLimitMaxWaitNanos;
+    private final PrioritizedRequestScheduler scheduler;
+    private final RestClientAccessLog accessLog;
+    private final ByteBufferPool bufferPool;
+    private final ResponseCache responseCache;
+    private final long responseCacheTtl;
+    private final ConversionMemoizer conversionMemoizer;
+    private final RestClientTracer tracer;
+    private final boolean binaryFormatNegotiation;
+    private final long closeGracePeriod;
+    private final RequestConfig requestConfig;
+    private final PooledTransport transport;
+    private final boolean ownsTransport;
+    private final int warmUpConnections;
+    private final String warmUpHealthPath;
+    private final long warmUpBudget;
+    private final AtomicLong inFlight = new AtomicLong();
+    private final ReentrantLock inFlightLock = new ReentrantLock();
+    private final Condition inFlightCompleted = inFlightLock.newCondition();
+    private final AtomicBoolean closed = new AtomicBoolean();
 
     public RestClientService(@NotNull final String baseUrl, final int timeout) throws IOException {
-        this.baseUrl = baseUrl;
+        this(RestClientServiceConfiguration.create(baseUrl).timeout(timeout).build());
+    }
+
+    /**
+     * Creates the service and warms up its connections as configured, see {@link #warmUp()}
+     */
+    @NotNull
+    public static RestClientService create(@NotNull final RestClientServiceConfiguration configuration) throws IOException {
+        final RestClientService service = new RestClientService(configuration);
+        service.warmUp();
+        return service;
+    }
+
+    /**
+     * Creates the service without warming up its connections, use {@link #create(RestClientServiceConfiguration)} to warm them up as well
+     */
+    public RestClientService(@NotNull final RestClientServiceConfiguration configuration) throws IOException {
+        this(configuration, new PooledTransport(0, 0, configuration.getDnsCacheTtl(), new ByteBufferPool(configuration.getBufferPoolMaxBufferSize(),
+            configuration.getBufferPoolMaxPooledBytes(), configuration.isBufferPoolDirect())), true);
+    }
+
+    /**
+     * Creates a service executing its requests on the given transport
+     *
+     * @param configuration The configuration of the service, its DNS cache and buffer pool settings are ignored in favour of the ones of the transport
+     * @param transport The transport requests are executed on
+     * @param ownsTransport Whether closing the service closes the transport
+     */
+    RestClientService(@NotNull final RestClientServiceConfiguration configuration, @NotNull final PooledTransport transport, final boolean ownsTransport)
+        throws IOException {
+        this(configuration, transport, ownsTransport, System::nanoTime);
+    }
+
+    /**
+     * Creates a service executing its requests on the given transport, whose rate limiters take the time from the given source
+     */
+    RestClientService(@NotNull final RestClientServiceConfiguration configuration, @NotNull final PooledTransport transport, final boolean ownsTransport,
+                      @NotNull final LongSupplier nanoTime) throws IOException {
+        this.baseUrl = configuration.getBaseUrl();
+        this.timeout = configuration.getTimeout();
+        this.rateLimiter = configuration.getRateLimit() > 0
+            ? new TokenBucketRateLimiter(configuration.getRateLimit(), configuration.getRateLimitBurst(), nanoTime)
+            : null;
+        this.routeRateLimiters = createRouteRateLimiters(configuration, nanoTime);
+        this.rateLimitMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getRateLimitMaxWait());
+        this.scheduler = configuration.getMaxConcurrentRequests() > 0
+            ? new PrioritizedRequestScheduler(configuration.getMaxConcurrentRequests(), RestClientPriority.values().length,
+                configuration.getStarvationThreshold(), TimeUnit.MILLISECONDS)
+            : null;
+        this.accessLog = new RestClientAccessLog(configuration.getAccessLogSampleRate(), configuration.getAccessLogSlowThreshold());
+        this.bufferPool = transport.getBufferPool();
+        this.responseCache = configuration.getResponseCache();
+        this.responseCacheTtl = configuration.getResponseCacheTtl();
+        this.conversionMemoizer = configuration.getConversionMemoizer();
+        this.tracer = configuration.getTracer();
+        this.binaryFormatNegotiation = configuration.isBinaryFormatNegotiation();
+        this.closeGracePeriod = configuration.getCloseGracePeriod();
         final RequestConfig.Builder requestConfigBuilder = RequestConfig.custom();
         if (timeout != -1) {
             requestConfigBuilder.setSocketTimeout(timeout);
             requestConfigBuilder.setConnectionRequestTimeout(timeout);
             requestConfigBuilder.setConnectTimeout(timeout);
         }
-        this.httpClient = HttpClients.custom().setDefaultRequestConfig(requestConfigBuilder.build()).build();
+        this.requestConfig = requestConfigBuilder.build();
+        this.transport = transport;
+        this.ownsTransport = ownsTransport;
+        if (configuration.getMaxConnections() > 0 || configuration.getWarmUpConnections() > transport.getDefaultMaxConnections()) {
+            final int maxConnections = configuration.getMaxConnections() > 0 ? configuration.getMaxConnections() : transport.getDefaultMaxConnections();
+            transport.setMaxConnections(determineRoute(baseUrl), Math.max(maxConnections, configuration.getWarmUpConnections()));
+        } else if (!ownsTransport) {
+            // A limit set by an earlier service of the backend on the shared transport no longer applies
+            transport.resetMaxConnections(determineRoute(baseUrl));
+        }
+        this.warmUpConnections = configuration.getWarmUpConnections();
+        this.warmUpHealthPath = configuration.getWarmUpHealthPath();
+        this.warmUpBudget = configuration.getWarmUpBudget();
+    }
+
+    /**
+     * Creates the rate limiters per path prefix, ordered from the most to the least specific prefix
+     */
+    @NotNull
+    private static Map<String, TokenBucketRateLimiter> createRouteRateLimiters(@NotNull final RestClientServiceConfiguration configuration,
+                                                                              @NotNull final LongSupplier nanoTime) {
+        final Map<String, TokenBucketRateLimiter> rateLimiters = new TreeMap<>(Comparator.comparingInt(String::length).reversed()
+            .thenComparing(Comparator.naturalOrder()));
+        configuration.getRouteRateLimits().forEach((prefix, permitsPerSecond) ->
+            rateLimiters.put(normalizePath(prefix), new TokenBucketRateLimiter(permitsPerSecond, configuration.getRateLimitBurst(), nanoTime)));
+        return rateLimiters;
+    }
+
+    /**
+     * Opens the configured number of warm-up connections and fires the health request, blocking the calling thread at most for the warm-up budget. Call
+     * it once the service is fully constructed, before it takes traffic.
+     *
+     * @return Whether the warm-up completed within the budget, also true when no warm-up is configured
+     * @throws IOException In case the route of the base URL could not be determined
+     */
+    public boolean warmUp() throws IOException {
+        if (warmUpConnections <= 0) {
+            return true;
+        }
+        final String healthPath = warmUpHealthPath;
+        final Runnable healthRequest = healthPath == null ? null : () -> {
+            try {
+                execute(RestClientRequest.create(HttpGet.METHOD_NAME).path(healthPath).build());
+            } catch (final RestCallException e) {
+                log.warn("Warm-up health request to {} failed", healthPath, e);
+            }
+        };
+        return new ConnectionWarmer(transport.getConnectionManager()).warmUp(determineRoute(baseUrl), warmUpConnections, timeout, healthRequest,
+            warmUpBudget);
+    }
+
+    /**
+     * Determines the route the connection pool uses for requests to the given base URL, equal to the one the default route planner determines
+     */
+    @NotNull
+    private static HttpRoute determineRoute(@NotNull final String baseUrl) throws IOException {
+        final HttpHost host = URIUtils.extractHost(URI.create(baseUrl));
+        if (host == null) {
+            throw new IOException("Unable to determine the host of base URL " + baseUrl);
+        }
+        final HttpHost target = new HttpHost(host.getHostName(), DefaultSchemePortResolver.INSTANCE.resolve(host), host.getSchemeName());
+        return new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName()));
     }
 
     @NotNull
     public <T> RestClientResponse<T> execute(@NotNull final RestClientRequest<T> request) throws RestCallException {
-        final String path = request.getPath();
-        final String url = baseUrl + "/" + StringUtils.removeStart(path, "/") + determineQueryString(request);
+        final String url = determineUrl(request);
+        if (responseCache == null || !request.isCacheable() || !HttpGet.METHOD_NAME.equalsIgnoreCase(request.getMethod())) {
+            return execute(request, url, false);
+        }
+        final CachedResponse cached = responseCache.get(url);
+        if (cached != null && cached.isFresh(responseCacheTtl, System.currentTimeMillis())) {
+            return convertCached(cached, request, url);
+        }
+        try {
+            return execute(request, url, true);
+        } catch (final RestCallException e) {
+            if (cached == null || !isBackendFailure(e)) {
+                throw e;
+            }
+            log.warn("Serving stale response for {} stored at {}, as the backend call failed: {}", url, cached.getStoredAt(), e.getMessage());
+            return convertCached(cached, request, url);
+        }
+    }
+
+    /**
+     * Only failures of the backend itself are bridged with a stale response: I/O errors, timeouts and server errors. Requests rejected by the client and
+     * responses that were received but could not be converted are not.
+     */
+    private static boolean isBackendFailure(@NotNull final RestCallException e) {
+        if (e instanceof RestCallResponseException) {
+            return ((RestCallResponseException) e).getStatusCode() >= 500;
+        }
+        if (e instanceof RestCallTimeoutException) {
+            return true;
+        }
+        if (e instanceof RestCallRateLimitException || e instanceof RestCallDeadlineExceededException || e instanceof RestCallConversionException) {
+            return false;
+        }
+        return e.getCause() instanceof IOException;
+    }
+
+    @NotNull
+    private <T> RestClientResponse<T> convertCached(@NotNull final CachedResponse cached, @NotNull final RestClientRequest<T> request,
+                                                    @NotNull final String url) throws RestCallException {
+        try (final ResponseBody responseBody = new ResponseBody(ByteBuffer.wrap(cached.getBody()), Charset.forName(cached.getCharset()), null)) {
+            return new RestClientResponse<>(cached.getStatusCode(), convert(responseBody, cached.getContentType(), request.getResponseType()),
+                cached.getHeaders());
+        } catch (final IOException e) {
+            throw toRestCallException(e, url);
+        }
+    }
+
+    @NotNull
+    private <T> RestClientResponse<T> execute(@NotNull final RestClientRequest<T> request, @NotNull final String url, final boolean store)
+        throws RestCallException {
+        final HttpUriRequest httpRequest = buildRequest(request, url);
+        if (binaryFormatNegotiation) {
+            negotiateFormat(request, httpRequest);
+        }
+        final SpanRecorder span = startSpan(request, httpRequest, url);
+        HashedWheelTimer.Timeout deadline = null;
+        try {
+            final RequestDeadline requestDeadline = beginRequest(request, url);
+            try {
+                deadline = scheduleDeadline(httpRequest, requestDeadline);
+                try (final CloseableHttpResponse httpResponse = executeRequest(request, httpRequest, url, span)) {
+                    final int statusCode = httpResponse.getStatusLine().getStatusCode();
+                    final HttpEntity entity = httpResponse.getEntity();
+                    final String contentType = Optional
+                        .ofNullable(entity)
+                        .map(HttpEntity::getContentType)
+                        .map(Header::getValue)
+                        .orElse(null);
+                    final long readStart = span == null ? 0 : System.nanoTime();
+                    try (final ResponseBody responseBody = readBody(entity)) {
+                        if (span != null) {
+                            span.bodyRead(System.nanoTime() - readStart);
+                        }
+                        if (statusCode >= 400) {
+                            throw new RestCallResponseException(statusCode, httpResponse.getStatusLine().getReasonPhrase(), contentType,
+                                responseBody.asString());
+                        }
+                        final long conversionStart = span == null ? 0 : System.nanoTime();
+                        final T value;
+                        try {
+                            value = convert(responseBody, contentType, request.getResponseType());
+                        } catch (final IOException e) {
+                            throw new RestCallConversionException(url, e);
+                        }
+                        if (span != null) {
+                            span.converted(System.nanoTime() - conversionStart);
+                        }
+                        if (store) {
+                            responseCache.put(url, new CachedResponse(statusCode, contentType, responseBody.getCharset().name(),
+                                responseBody.toByteArray(), httpResponse.getAllHeaders(), System.currentTimeMillis()));
+                        }
+                        return new RestClientResponse<>(statusCode, value, httpResponse.getAllHeaders());
+                    }
+                }
+            } finally {
+                cancelDeadline(deadline);
+                endRequest();
+            }
+        } catch (final IOException e) {
+            throw failSpan(span, toRestCallException(e, url, deadline));
+        } catch (final RuntimeException e) {
+            throw failSpan(span, e);
+        } finally {
+            endSpan(span);
+        }
+    }
+
+    @NotNull
+    private <T> T convert(@NotNull final ResponseBody responseBody, @Nullable final String contentType, @NotNull final Class<T> responseType)
+        throws IOException {
+        if (conversionMemoizer != null) {
+            return conversionMemoizer.convert(responseBody, contentType, responseType);
+        }
+        return ResponseConverterFactory.convert(responseBody, contentType, responseType);
+    }
+
+    /**
+     * Executes the request, but only retrieves the status code and headers of the response. The response body is neither read nor converted, which makes
+     * this suitable for existence checks and pagination probes. Use the HEAD method where the backend supports it, as a connection that still has an
+     * unread body can't be reused.
+     *
+     * @param request The request to execute, its response type is ignored
+     * @return A response containing the status code and headers
+     * @throws RestCallException In case the request failed or the backend responded with an error status code
+     */
+    @NotNull
+    public RestClientResponse<ObjectUtils.Null> executeHeaders(@NotNull final RestClientRequest<?> request) throws RestCallException {
+        final String url = determineUrl(request);
+        final HttpUriRequest httpRequest = buildRequest(request, url);
+        final SpanRecorder span = startSpan(request, httpRequest, url);
+        HashedWheelTimer.Timeout deadline = null;
+        try {
+            final RequestDeadline requestDeadline = beginRequest(request, url);
+            try {
+                deadline = scheduleDeadline(httpRequest, requestDeadline);
+                try (final CloseableHttpResponse httpResponse = executeRequest(request, httpRequest, url, span)) {
+                    final int statusCode = httpResponse.getStatusLine().getStatusCode();
+                    if (statusCode >= 400) {
+                        final String contentType = Optional
+                            .ofNullable(httpResponse.getFirstHeader(HttpHeaders.CONTENT_TYPE))
+                            .map(Header::getValue)
+                            .orElse(null);
+                        throw new RestCallResponseException(statusCode, httpResponse.getStatusLine().getReasonPhrase(), contentType,
+                            StringUtils.EMPTY);
+                    }
+                    return new RestClientResponse<>(statusCode, ObjectUtils.NULL, httpResponse.getAllHeaders());
+                }
+            } finally {
+                cancelDeadline(deadline);
+                endRequest();
+            }
+        } catch (final IOException e) {
+            throw failSpan(span, toRestCallException(e, url, deadline));
+        } catch (final RuntimeException e) {
+            throw failSpan(span, e);
+        } finally {
+            endSpan(span);
+        }
+    }
+
+    /**
+     * Executes the request and returns a response of which the elements of a top-level JSON array, or of a newline delimited JSON body, are read and
+     * converted one at a time while iterating. The connection is held until the response is closed or all elements have been read.
+     *
+     * @param request The request to execute, its response type is the type of a single element
+     * @return A response that has to be closed after use
+     * @throws RestCallException In case the request failed or the backend responded with an error status code
+     */
+    @NotNull
+    public <T> RestClientStreamingResponse<T> executeStream(@NotNull final RestClientRequest<T> request) throws RestCallException {
+        final String url = determineUrl(request);
+        final HttpUriRequest httpRequest = buildRequest(request, url);
+        final SpanRecorder span = startSpan(request, httpRequest, url);
+        HashedWheelTimer.Timeout deadline = null;
+        try {
+            final RequestDeadline requestDeadline = beginRequest(request, url);
+            CloseableHttpResponse httpResponse = null;
+            try {
+                deadline = scheduleDeadline(httpRequest, requestDeadline);
+                httpResponse = executeRequest(request, httpRequest, url, span);
+                final int statusCode = httpResponse.getStatusLine().getStatusCode();
+                final HttpEntity entity = httpResponse.getEntity();
+                if (statusCode >= 400) {
+                    final String contentType = Optional
+                        .ofNullable(entity)
+                        .map(HttpEntity::getContentType)
+                        .map(Header::getValue)
+                        .orElse(null);
+                    final String responseBody = entity == null ? StringUtils.EMPTY : EntityUtils.toString(entity);
+                    throw new RestCallResponseException(statusCode, httpResponse.getStatusLine().getReasonPhrase(), contentType, responseBody);
+                }
+                final InputStream content = entity == null ? EmptyInputStream.INSTANCE : entity.getContent();
+                return new RestClientStreamingResponse<>(statusCode, httpResponse.getAllHeaders(),
+                    new JsonElementIterator<>(content, request.getResponseType()), httpResponse, url, this::endRequest);
+            } catch (final IOException | RuntimeException e) {
+                closeQuietly(httpResponse);
+                endRequest();
+                throw e;
+            } finally {
+                // The deadline and span cover receiving the response headers, reading the elements is up to the caller
+                cancelDeadline(deadline);
+            }
+        } catch (final IOException e) {
+            throw failSpan(span, toRestCallException(e, url, deadline));
+        } catch (final RuntimeException e) {
+            throw failSpan(span, e);
+        } finally {
+            endSpan(span);
+        }
+    }
 
-        final RequestBuilder requestBuilder = RequestBuilder.create(request.getMethod()).setUri(url);
+    /**
+     * Stops accepting requests and waits for the requests that are executing to complete, for at most the configured grace period. The transport is only
+     * closed in case the service created it itself.
+     */
+    @Override
+    public void close() throws IOException {
+        stopAccepting();
+        if (!awaitInFlight(closeGracePeriod)) {
+            log.warn("Closing the client for {} while requests are still executing", baseUrl);
+        }
+        if (ownsTransport) {
+            transport.close();
+        }
+    }
+
+    /**
+     * Rejects all requests that are executed from now on, requests that are already executing are not affected
+     */
+    void stopAccepting() {
+        closed.set(true);
+    }
+
+    /**
+     * Waits for the requests that were executing when the service stopped accepting requests
+     *
+     * @return Whether all requests completed within the given time in milliseconds
+     */
+    boolean awaitInFlight(final long timeout) {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+        inFlightLock.lock();
+        try {
+            while (inFlight.get() > 0) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = inFlightCompleted.awaitNanos(remaining);
+            }
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            inFlightLock.unlock();
+        }
+    }
+
+    /**
+     * Admits the request once it fits within the rate limits and a slot is available, rejecting it when its deadline passes in the meantime
+     *
+     * @return The deadline by which the request has to be completed, covering the time spent waiting for admission
+     */
+    @NotNull
+    private <T> RequestDeadline beginRequest(@NotNull final RestClientRequest<T> request, @NotNull final String url) throws RestCallException {
+        final RequestDeadline requestDeadline = new RequestDeadline(timeout, request.getDeadline());
+        inFlight.incrementAndGet();
+        if (closed.get()) {
+            completeInFlight();
+            throw new RestCallException("The client has been closed, unable to execute the request for URL " + url, null);
+        }
+        try {
+            if (requestDeadline.isPassed()) {
+                throw requestDeadline.toException(url);
+            }
+            acquireRateLimitPermits(request, url, requestDeadline);
+            acquireSlot(request, url, requestDeadline);
+            return requestDeadline;
+        } catch (final RestCallException | RuntimeException e) {
+            completeInFlight();
+            throw e;
+        }
+    }
+
+    private void endRequest() {
+        if (scheduler != null) {
+            scheduler.release();
+        }
+        completeInFlight();
+    }
+
+    /**
+     * Signals the threads waiting for the requests that are executing once the last one completes after the service stopped accepting requests
+     */
+    private void completeInFlight() {
+        if (inFlight.decrementAndGet() == 0 && closed.get()) {
+            inFlightLock.lock();
+            try {
+                inFlightCompleted.signalAll();
+            } finally {
+                inFlightLock.unlock();
+            }
+        }
+    }
+
+    private <T> void acquireSlot(@NotNull final RestClientRequest<T> request, @NotNull final String url, @NotNull final RequestDeadline requestDeadline)
+        throws RestCallException {
+        if (requestDeadline.isPassed()) {
+            throw requestDeadline.toException(url);
+        }
+        if (scheduler == null) {
+            return;
+        }
+        try {
+            if (!scheduler.acquire(request.getPriority().ordinal(), requestDeadline.isBounded() ? requestDeadline.remainingNanos() : -1)) {
+                throw requestDeadline.toException(url);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestCallException("Interrupted while waiting for a connection slot for URL " + url, e);
+        }
+        if (requestDeadline.isPassed()) {
+            scheduler.release();
+            throw requestDeadline.toException(url);
+        }
+    }
+
+    /**
+     * @return The usage of the pool of buffers response bodies are read into
+     */
+    @NotNull
+    public ByteBufferPoolMetrics getBufferPoolMetrics() {
+        return bufferPool.getMetrics();
+    }
+
+    /**
+     * Reads the body into a pooled buffer sized by the content length, the buffer is handed back to the pool when the body is closed
+     */
+    @NotNull
+    private ResponseBody readBody(@Nullable final HttpEntity entity) throws IOException {
+        if (entity == null || entity.getContentLength() == 0) {
+            EntityUtils.consume(entity);
+            return new ResponseBody(ByteBuffer.allocate(0), StandardCharsets.UTF_8, null);
+        }
+        final Charset charset = determineCharset(entity);
+        final long contentLength = entity.getContentLength();
+        if (contentLength > MAX_BODY_SIZE) {
+            throw bodyTooLarge(contentLength);
+        }
+        ByteBuffer buffer = bufferPool.acquire(contentLength > 0 ? (int) contentLength : DEFAULT_BUFFER_SIZE);
+        try (final InputStream content = entity.getContent()) {
+            final ReadableByteChannel channel = buffer.hasArray() ? null : Channels.newChannel(content);
+            while (contentLength < 0 || buffer.position() < contentLength) {
+                if (!buffer.hasRemaining()) {
+                    if (buffer.capacity() >= MAX_BODY_SIZE) {
+                        throw bodyTooLarge(contentLength);
+                    }
+                    final ByteBuffer larger = bufferPool.acquire((int) Math.min(MAX_BODY_SIZE, buffer.capacity() * 2L));
+                    buffer.flip();
+                    larger.put(buffer);
+                    bufferPool.release(buffer);
+                    buffer = larger;
+                }
+                final int read = channel == null
+                    ? content.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+                    : channel.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                if (channel == null) {
+                    buffer.position(buffer.position() + read);
+                }
+            }
+        } catch (final IOException | RuntimeException e) {
+            bufferPool.release(buffer);
+            throw e;
+        }
+        buffer.flip();
+        return new ResponseBody(buffer, charset, bufferPool::release);
+    }
+
+    @NotNull
+    private static IOException bodyTooLarge(final long contentLength) {
+        return new IOException("The response body of " + (contentLength < 0 ? "unknown length" : contentLength + " bytes") + " exceeds the maximum of "
+            + MAX_BODY_SIZE + " bytes");
+    }
+
+    /**
+     * Determines the charset the same way {@link EntityUtils#toString(HttpEntity)} does
+     */
+    @NotNull
+    private static Charset determineCharset(@NotNull final HttpEntity entity) {
+        return determineCharset(ContentType.get(entity));
+    }
+
+    @NotNull
+    static Charset determineCharset(@Nullable final String contentType) {
+        return determineCharset(StringUtils.isEmpty(contentType) ? null : ContentType.parse(contentType));
+    }
+
+    @NotNull
+    private static Charset determineCharset(@Nullable final ContentType contentType) {
+        Charset charset = contentType == null ? null : contentType.getCharset();
+        if (charset == null && contentType != null) {
+            final ContentType defaultContentType = ContentType.getByMimeType(contentType.getMimeType());
+            charset = defaultContentType == null ? null : defaultContentType.getCharset();
+        }
+        return charset == null ? HTTP.DEF_CONTENT_CHARSET : charset;
+    }
+
+    @NotNull
+    private <T> String determineUrl(@NotNull final RestClientRequest<T> request) {
+        return baseUrl + normalizePath(request.getPath()) + determineQueryString(request);
+    }
+
+    @NotNull
+    static String normalizePath(@NotNull final String path) {
+        return "/" + StringUtils.removeStart(path, "/");
+    }
+
+    private <T> void acquireRateLimitPermits(@NotNull final RestClientRequest<T> request, @NotNull final String url,
+                                             @NotNull final RequestDeadline requestDeadline) throws RestCallException {
+        final long maxWaitNanos = requestDeadline.isBounded() ? Math.min(rateLimitMaxWaitNanos, requestDeadline.remainingNanos()) : rateLimitMaxWaitNanos;
+        final TokenBucketRateLimiter routeRateLimiter = findRouteRateLimiter(request);
+        long waitNanos = 0;
+        if (routeRateLimiter != null) {
+            waitNanos = reserve(routeRateLimiter, url, maxWaitNanos);
+        }
+        if (rateLimiter != null) {
+            try {
+                waitNanos = Math.max(waitNanos, reserve(rateLimiter, url, maxWaitNanos));
+            } catch (final RestCallRateLimitException e) {
+                if (routeRateLimiter != null) {
+                    routeRateLimiter.release();
+                }
+                throw e;
+            }
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RestCallException("Interrupted while waiting for the rate limit for URL " + url, e);
+            }
+        }
+    }
+
+    /**
+     * @return The rate limiter of the most specific path prefix the path of the request falls under, prefixes only match whole path segments
+     */
+    @Nullable
+    private <T> TokenBucketRateLimiter findRouteRateLimiter(@NotNull final RestClientRequest<T> request) {
+        if (routeRateLimiters.isEmpty()) {
+            return null;
+        }
+        final String path = normalizePath(request.getPath());
+        for (final Map.Entry<String, TokenBucketRateLimiter> entry : routeRateLimiters.entrySet()) {
+            final String prefix = entry.getKey();
+            if (path.startsWith(prefix) && (path.length() == prefix.length() || prefix.endsWith("/") || path.charAt(prefix.length()) == '/')) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static long reserve(@NotNull final TokenBucketRateLimiter limiter, @NotNull final String url, final long maxWaitNanos)
+        throws RestCallRateLimitException {
+        final long waitNanos = limiter.reserve(Math.max(0, maxWaitNanos));
+        if (waitNanos < 0) {
+            throw new RestCallRateLimitException(url);
+        }
+        return waitNanos;
+    }
+
+    @NotNull
+    private <T> HttpUriRequest buildRequest(@NotNull final RestClientRequest<T> request, @NotNull final String url) {
+        final RequestBuilder requestBuilder = RequestBuilder.create(request.getMethod()).setUri(url).setConfig(requestConfig);
         final Object body = request.getBody();
         if (body != null) {
             addRequestBody(requestBuilder, body);
         }
         request.getHeaders().forEach(requestBuilder::addHeader);
-        log.info("Opening connection to: {}", url);
-        final long startTime = System.currentTimeMillis();
+        return requestBuilder.build();
+    }
+
+    /**
+     * Asks the backend for a binary format the response type can be converted from, unless the caller chose the accepted formats itself
+     */
+    private static <T> void negotiateFormat(@NotNull final RestClientRequest<T> request, @NotNull final HttpUriRequest httpRequest) {
+        final String accept = ResponseConverterFactory.determineAccept(request.getResponseType());
+        if (accept != null && request.getHeaders().keySet().stream().noneMatch(HttpHeaders.ACCEPT::equalsIgnoreCase)) {
+            httpRequest.setHeader(HttpHeaders.ACCEPT, accept);
+        }
+    }
+
+    /**
+     * Schedules aborting the request once the timeout has passed. The timeouts of the client apply to leasing a connection, connecting and every single
+     * socket read separately, the deadline bounds the total time from admitting the request until the response has been read.
+     *
+     * @return The deadline, or null in case neither a timeout nor a request deadline is configured
+     */
+    @Nullable
+    private HashedWheelTimer.Timeout scheduleDeadline(@NotNull final HttpUriRequest httpRequest, @NotNull final RequestDeadline requestDeadline) {
+        if (!requestDeadline.isBounded()) {
+            return null;
+        }
+        return transport.getDeadlineTimer().schedule(httpRequest::abort, Math.max(0, requestDeadline.remainingNanos()), TimeUnit.NANOSECONDS);
+    }
+
+    private static void cancelDeadline(@Nullable final HashedWheelTimer.Timeout deadline) {
+        if (deadline != null) {
+            deadline.cancel();
+        }
+    }
+
+    @NotNull
+    private <T> CloseableHttpResponse executeRequest(@NotNull final RestClientRequest<T> request, @NotNull final HttpUriRequest httpRequest,
+                                                     @NotNull final String url, @Nullable final SpanRecorder span) throws IOException {
+        log.debug("Opening connection to: {}", url);
+        final long startTime = System.nanoTime();
         final HttpContext context = HttpClientContext.create();
         request.getAttributes().forEach(context::setAttribute);
-        try (final CloseableHttpResponse httpResponse = httpClient.execute(requestBuilder.build(), context)) {
-            final long elapsedTime = System.currentTimeMillis() - startTime;
-            log.info(String.format("Total elapsed response time: %dms for %s", elapsedTime, url));
-            final int statusCode = httpResponse.getStatusLine().getStatusCode();
-            final HttpEntity entity = httpResponse.getEntity();
-            final String contentType = Optional
-                .ofNullable(entity)
-                .map(HttpEntity::getContentType)
-                .map(Header::getValue)
+        if (span != null) {
+            span.attach(context);
+        }
+        try {
+            final CloseableHttpResponse httpResponse = transport.getHttpClient().execute(httpRequest, context);
+            accessLog.log(request.getMethod(), url, httpResponse.getStatusLine().getStatusCode(), System.nanoTime() - startTime);
+            return httpResponse;
+        } catch (final IOException e) {
+            accessLog.log(request.getMethod(), url, -1, System.nanoTime() - startTime);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the span of the call when tracing is enabled, as a child of the trace context passed along with the request
+     */
+    @Nullable
+    private <T> SpanRecorder startSpan(@NotNull final RestClientRequest<T> request, @NotNull final HttpUriRequest httpRequest,
+                                       @NotNull final String url) {
+        if (tracer == null) {
+            return null;
+        }
+        Object parent = request.getAttributes().get(RestClientTracer.PARENT_ATTRIBUTE);
+        if (parent == null) {
+            parent = request.getHeaders().entrySet().stream()
+                .filter(header -> TraceContext.TRACEPARENT_HEADER.equalsIgnoreCase(header.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
                 .orElse(null);
-            final String responseBody = entity == null ? StringUtils.EMPTY : EntityUtils.toString(entity);
-            if (statusCode >= 400) {
-                throw new RestCallResponseException(statusCode, httpResponse.getStatusLine().getReasonPhrase(), contentType, responseBody);
+        }
+        return tracer.start(httpRequest, request.getMethod(), url, parent == null ? null : parent.toString());
+    }
+
+    /**
+     * Marks the span as failed, the span covers the whole call from admission on, so any failure in it is recorded
+     */
+    @NotNull
+    private static <E extends Exception> E failSpan(@Nullable final SpanRecorder span, @NotNull final E e) {
+        if (span != null) {
+            span.failed(e);
+        }
+        return e;
+    }
+
+    private static void endSpan(@Nullable final SpanRecorder span) {
+        if (span != null) {
+            span.end();
+        }
+    }
+
+    private static void closeQuietly(@Nullable final CloseableHttpResponse httpResponse) {
+        if (httpResponse != null) {
+            try {
+                httpResponse.close();
+            } catch (final IOException e) {
+                log.debug("Unable to close the response", e);
             }
-            return new RestClientResponse<>(statusCode, ResponseConverterFactory.convert(responseBody, contentType, request.getResponseType()));
-        } catch (final RestCallException e) {
-            throw e;
-        } catch (final ConnectTimeoutException | SocketTimeoutException e) {
-            throw new RestCallTimeoutException(url, e);
-        } catch (final IOException e) {
-            throw new RestCallException("Failed to retrieve the requested data from the api for URL " + url, e);
         }
     }
 
     @NotNull
-    private static <T> String determineQueryString(@NotNull final RestClientRequest<T> request) {
+    private static RestCallException toRestCallException(@NotNull final IOException e, @NotNull final String url,
+                                                         @Nullable final HashedWheelTimer.Timeout deadline) {
+        if (!(e instanceof RestCallException) && deadline != null && deadline.isExpired()) {
+            return new RestCallTimeoutException(url, e);
+        }
+        return toRestCallException(e, url);
+    }
+
+    @NotNull
+    static RestCallException toRestCallException(@NotNull final IOException e, @NotNull final String url) {
+        if (e instanceof RestCallException) {
+            return (RestCallException) e;
+        }
+        if (e instanceof ConnectTimeoutException || e instanceof SocketTimeoutException) {
+            return new RestCallTimeoutException(url, e);
+        }
+        return new RestCallException("Failed to retrieve the requested data from the api for URL " + url, e);
+    }
+
+    @NotNull
+    static <T> String determineQueryString(@NotNull final RestClientRequest<T> request) {
         final List<BasicNameValuePair> nameValuePairs = getNameValuePairs(request);
 
         if (nameValuePairs.isEmpty()) {
@@ -161,14 +916,65 @@ public class RestClientService {
     }
 
     private static void addRequestBody(@NotNull final RequestBuilder requestBuilder, @NotNull final Object data) {
+        requestBuilder.setEntity(encodeRequestBody(data, text -> new StringEntity(text, StandardCharsets.UTF_8), ByteArrayEntity::new,
+            requestBuilder::setHeader));
+    }
+
+    /**
+     * Encodes the body of a request for either HTTP client. Strings and byte arrays are sent as is, other objects as JSON, which sets the JSON headers.
+     *
+     * @param data The body of the request
+     * @param ofString Creates the body from a string
+     * @param ofBytes Creates the body from a byte array
+     * @param setHeader Sets a header of the request
+     */
+    @NotNull
+    static <B> B encodeRequestBody(@NotNull final Object data, @NotNull final Function<String, B> ofString, @NotNull final Function<byte[], B> ofBytes,
+                                   @NotNull final BiConsumer<String, String> setHeader) {
         if (data instanceof String) {
-            requestBuilder.setEntity(new StringEntity((String) data, StandardCharsets.UTF_8));
-        } else if (data instanceof byte[]) {
-            requestBuilder.setEntity(new ByteArrayEntity((byte[]) data));
-        } else {
-            requestBuilder.setHeader("Accept", "application/json");
-            requestBuilder.setHeader("Content-Type", "application/json");
-            requestBuilder.setEntity(new StringEntity(data.toString(), StandardCharsets.UTF_8));
+            return ofString.apply((String) data);
+        }
+        if (data instanceof byte[]) {
+            return ofBytes.apply((byte[]) data);
+        }
+        setHeader.accept("Accept", "application/json");
+        setHeader.accept("Content-Type", "application/json");
+        return ofString.apply(data.toString());
+    }
+
+    /**
+     * The moment by which a request has to be completed, the earliest of the timeout of the service and the deadline of the request. It is fixed when the
+     * request enters the service, so waiting for the rate limit or a slot uses up the same budget as executing the request.
+     */
+    private static final class RequestDeadline {
+        private final long deadlineNanos;
+        private final boolean bounded;
+        private final boolean requestBound;
+
+        private RequestDeadline(final int timeout, final long requestDeadline) {
+            final long now = System.nanoTime();
+            final long timeoutNanos = timeout == -1 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(timeout);
+            final long requestNanos = requestDeadline > 0 ? TimeUnit.MILLISECONDS.toNanos(requestDeadline - System.currentTimeMillis()) : Long.MAX_VALUE;
+            this.bounded = timeout != -1 || requestDeadline > 0;
+            this.requestBound = requestNanos <= timeoutNanos;
+            this.deadlineNanos = bounded ? now + Math.min(timeoutNanos, requestNanos) : 0;
+        }
+
+        boolean isBounded() {
+            return bounded;
+        }
+
+        long remainingNanos() {
+            return deadlineNanos - System.nanoTime();
+        }
+
+        boolean isPassed() {
+            return bounded && remainingNanos() <= 0;
+        }
+
+        @NotNull
+        RestCallException toException(@NotNull final String url) {
+            return requestBound ? new RestCallDeadlineExceededException(url) : new RestCallTimeoutException(url, null);
         }
     }
 }
@@ -0,0 +1,153 @@
+package nl.something.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Singular;
+import nl.something.client.cache.ResponseCache;
+import nl.something.client.response.converter.memo.ConversionMemoizer;
+import nl.something.client.tracing.RestClientTracer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@Builder
+public class RestClientServiceConfiguration {
+    /**
+     * The base URL all request paths are appended to
+     */
+    @NotNull
+    private final String baseUrl;
+    /**
+     * The timeout in milliseconds used for leasing a connection, connecting and reading (-1 for no timeout)
+     */
+    @Builder.Default
+    private final int timeout = -1;
+    /**
+     * The time in milliseconds resolved host addresses are cached (0 to disable caching), services of a registry use the setting of the registry
+     */
+    @Builder.Default
+    private final long dnsCacheTtl = 0;
+    /**
+     * The number of connections that are opened to the backend when the service is warmed up (0 to disable warm-up), which
+     * {@link RestClientService#create(RestClientServiceConfiguration)} and {@link RestClientRegistry#register(String, RestClientServiceConfiguration)} do
+     */
+    @Builder.Default
+    private final int warmUpConnections = 0;
+    /**
+     * The path of a request that is fired at the backend after the warm-up connections have been opened (optional)
+     */
+    @Nullable
+    private final String warmUpHealthPath;
+    /**
+     * The maximum time in milliseconds the warm-up may block the calling thread
+     */
+    @Builder.Default
+    private final long warmUpBudget = 2000;
+    /**
+     * The maximum number of requests per second sent to the backend (0 for no limit)
+     */
+    @Builder.Default
+    private final double rateLimit = 0;
+    /**
+     * The number of requests that may be sent at once after a quiet period, for the service and all routes
+     */
+    @Builder.Default
+    private final int rateLimitBurst = 1;
+    /**
+     * The maximum time in milliseconds a request is queued when the rate limit is reached, before it is rejected
+     */
+    @Builder.Default
+    private final long rateLimitMaxWait = 0;
+    /**
+     * The maximum number of requests per second for paths starting with the given prefix, applied on top of the limit of the service
+     */
+    @Singular
+    private final Map<String, Double> routeRateLimits;
+    /**
+     * The fraction of calls (between 0 and 1) that is written to the access log
+     */
+    @Builder.Default
+    private final double accessLogSampleRate = 1;
+    /**
+     * The duration in milliseconds from which calls are always written to the access log (-1 to only use sampling)
+     */
+    @Builder.Default
+    private final long accessLogSlowThreshold = -1;
+    /**
+     * The size in bytes of the largest response body buffer that is reused, larger bodies get a buffer of their own, services of a registry use the
+     * setting of the registry
+     */
+    @Builder.Default
+    private final int bufferPoolMaxBufferSize = 1024 * 1024;
+    /**
+     * The maximum number of bytes held by response body buffers that are kept for reuse, services of a registry use the setting of the registry
+     */
+    @Builder.Default
+    private final long bufferPoolMaxPooledBytes = 16 * 1024 * 1024;
+    /**
+     * Whether response bodies are read into direct (off-heap) buffers, services of a registry use the setting of the registry
+     */
+    @Builder.Default
+    private final boolean bufferPoolDirect = false;
+    /**
+     * The cache responses of cacheable requests are stored in (optional)
+     */
+    @Nullable
+    private final ResponseCache responseCache;
+    /**
+     * The time in milliseconds a cached response is served without calling the backend, stale responses are only served when the backend call fails
+     */
+    @Builder.Default
+    private final long responseCacheTtl = 60000;
+    /**
+     * Whether responses are requested in a binary format (CBOR, Smile or Protobuf for generated message types), backends that do not support these
+     * formats keep responding with JSON
+     */
+    @Builder.Default
+    private final boolean binaryFormatNegotiation = false;
+    /**
+     * The maximum number of connections to the backend (0 for the default of the connection pool)
+     */
+    @Builder.Default
+    private final int maxConnections = 0;
+    /**
+     * The maximum time in milliseconds closing the service waits for requests that are still executing
+     */
+    @Builder.Default
+    private final long closeGracePeriod = 30000;
+    /**
+     * The maximum number of requests executing at the same time, further requests wait for a slot which is handed out by priority (0 for no limit)
+     */
+    @Builder.Default
+    private final int maxConcurrentRequests = 0;
+    /**
+     * The time in milliseconds after which a request waiting for a slot is served regardless of its priority
+     */
+    @Builder.Default
+    private final long starvationThreshold = 1000;
+    /**
+     * Remembers conversion results of response types marked as immutable, so repeated response bodies are not converted again (optional)
+     */
+    @Nullable
+    private final ConversionMemoizer conversionMemoizer;
+    /**
+     * Records a client span for every call and propagates it to the backend (optional)
+     */
+    @Nullable
+    private final RestClientTracer tracer;
+
+    /**
+     * Build a configuration for the given base URL
+     *
+     * @param baseUrl The base URL all request paths are appended to
+     *
+     * @return A configuration builder initialized with the given base URL
+     */
+    public static RestClientServiceConfigurationBuilder create(@NotNull final String baseUrl) {
+        return new RestClientServiceConfigurationBuilder().baseUrl(baseUrl);
+    }
+}
@@ -0,0 +1,121 @@
+package nl.something.client;
+
+import nl.something.client.response.converter.impl.JsonElementIterator;
+import org.apache.http.Header;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A response of which the elements are read from the connection while iterating. The connection is held until all elements have been read or the response
+ * is closed, so it should always be used in a try-with-resources block. Closing the response before all elements have been read discards the connection.
+ */
+public class RestClientStreamingResponse<T> implements Iterator<T>, Closeable {
+    private final int statusCode;
+    private final Header[] rawHeaders;
+    private final JsonElementIterator<T> elements;
+    private final CloseableHttpResponse httpResponse;
+    private final String url;
+    private final Runnable onClose;
+    private RestClientResponseHeaders headers;
+    private boolean closed;
+
+    RestClientStreamingResponse(final int statusCode, @NotNull final Header[] headers, @NotNull final JsonElementIterator<T> elements,
+                                @NotNull final CloseableHttpResponse httpResponse, @NotNull final String url, @NotNull final Runnable onClose) {
+        this.statusCode = statusCode;
+        this.rawHeaders = headers;
+        this.elements = elements;
+        this.httpResponse = httpResponse;
+        this.url = url;
+        this.onClose = onClose;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    @NotNull
+    public RestClientResponseHeaders getHeaders() {
+        if (headers == null) {
+            headers = new RestClientResponseHeaders(rawHeaders);
+        }
+        return headers;
+    }
+
+    /**
+     * @throws UncheckedIOException Wrapping a {@link nl.something.exceptions.RestCallException} in case the start of the next element could not be read
+     */
+    @Override
+    public boolean hasNext() {
+        final boolean hasNext;
+        try {
+            hasNext = !closed && elements.hasNext();
+        } catch (final UncheckedIOException e) {
+            closeQuietly();
+            throw new UncheckedIOException(RestClientService.toRestCallException(e.getCause(), url));
+        }
+        if (!hasNext) {
+            closeQuietly();
+        }
+        return hasNext;
+    }
+
+    /**
+     * @throws UncheckedIOException Wrapping a {@link nl.something.exceptions.RestCallException} in case the element could not be read
+     */
+    @Override
+    public T next() {
+        try {
+            return elements.next();
+        } catch (final UncheckedIOException e) {
+            closeQuietly();
+            throw new UncheckedIOException(RestClientService.toRestCallException(e.getCause(), url));
+        }
+    }
+
+    /**
+     * @return A sequential stream over the remaining elements, closing the stream closes this response
+     */
+    @NotNull
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(this::closeQuietly);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!elements.isFinished()) {
+                // Abort the connection instead of draining the remaining elements from it
+                httpResponse.close();
+            }
+            elements.close();
+        } finally {
+            try {
+                httpResponse.close();
+            } finally {
+                onClose.run();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
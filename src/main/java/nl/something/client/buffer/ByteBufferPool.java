@@ -0,0 +1,104 @@
+package nl.something.client.buffer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of reusable byte buffers, kept in power of two size classes. Buffers larger than the maximum buffer size are allocated on demand and never pooled,
+ * and released buffers are dropped once the total pooled memory would exceed its cap.
+ */
+public class ByteBufferPool {
+    private static final int MIN_SIZE_SHIFT = 12;
+
+    private final Queue<ByteBuffer>[] sizeClasses;
+    private final boolean direct;
+    private final int maxBufferSize;
+    private final long maxPooledBytes;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * @param maxBufferSize The size in bytes of the largest buffer that is pooled
+     * @param maxPooledBytes The maximum number of bytes held by buffers in the pool
+     * @param direct Whether to allocate direct (off-heap) buffers
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ByteBufferPool(final int maxBufferSize, final long maxPooledBytes, final boolean direct) {
+        final int sizeClassCount = Math.max(1, sizeClassOf(maxBufferSize) + 1);
+        this.sizeClasses = new Queue[sizeClassCount];
+        for (int i = 0; i < sizeClassCount; i++) {
+            sizeClasses[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.maxBufferSize = sizeOf(sizeClassCount - 1);
+        this.maxPooledBytes = maxPooledBytes;
+        this.direct = direct;
+    }
+
+    /**
+     * @param minCapacity The minimum capacity of the buffer
+     * @return A cleared buffer with at least the given capacity, which should be handed back using {@link #release(ByteBuffer)}
+     */
+    @NotNull
+    public ByteBuffer acquire(final int minCapacity) {
+        acquired.increment();
+        if (minCapacity > maxBufferSize) {
+            allocated.increment();
+            return allocate(minCapacity);
+        }
+        final int sizeClass = sizeClassOf(minCapacity);
+        final ByteBuffer buffer = sizeClasses[sizeClass].poll();
+        if (buffer == null) {
+            allocated.increment();
+            return allocate(sizeOf(sizeClass));
+        }
+        pooledBytes.addAndGet(-buffer.capacity());
+        reused.increment();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Hands a buffer back to the pool, it must not be used by the caller afterwards
+     */
+    public void release(@NotNull final ByteBuffer buffer) {
+        final int capacity = buffer.capacity();
+        if (buffer.isDirect() != direct || capacity > maxBufferSize || Integer.bitCount(capacity) != 1 || capacity < sizeOf(0)) {
+            return;
+        }
+        if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+            pooledBytes.addAndGet(-capacity);
+            discarded.increment();
+            return;
+        }
+        sizeClasses[sizeClassOf(capacity)].offer(buffer);
+    }
+
+    @NotNull
+    public ByteBufferPoolMetrics getMetrics() {
+        return new ByteBufferPoolMetrics(acquired.sum(), reused.sum(), allocated.sum(), discarded.sum(), pooledBytes.get(), maxPooledBytes);
+    }
+
+    @NotNull
+    private ByteBuffer allocate(final int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static int sizeClassOf(final int capacity) {
+        if (capacity <= 1 << MIN_SIZE_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SIZE_SHIFT;
+    }
+
+    private static int sizeOf(final int sizeClass) {
+        return 1 << (sizeClass + MIN_SIZE_SHIFT);
+    }
+}
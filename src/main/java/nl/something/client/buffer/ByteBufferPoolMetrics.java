@@ -0,0 +1,31 @@
+package nl.something.client.buffer;
+
+import lombok.Value;
+
+@Value
+public class ByteBufferPoolMetrics {
+    /**
+     * The number of buffers that were requested from the pool
+     */
+    long acquired;
+    /**
+     * The number of requested buffers that were served from the pool
+     */
+    long reused;
+    /**
+     * The number of requested buffers that had to be allocated, because the pool had no buffer of the requested size
+     */
+    long allocated;
+    /**
+     * The number of released buffers that were dropped, because the pool was at its memory cap
+     */
+    long discarded;
+    /**
+     * The number of bytes currently held by buffers in the pool
+     */
+    long pooledBytes;
+    /**
+     * The maximum number of bytes held by buffers in the pool
+     */
+    long maxPooledBytes;
+}
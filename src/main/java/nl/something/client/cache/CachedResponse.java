@@ -0,0 +1,33 @@
+package nl.something.client.cache;
+
+import lombok.Value;
+import org.apache.http.Header;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+@Value
+public class CachedResponse {
+    int statusCode;
+    @Nullable
+    String contentType;
+    /**
+     * The name of the charset the body is encoded with
+     */
+    @NotNull
+    String charset;
+    @NotNull
+    byte[] body;
+    /**
+     * The headers the response was received with
+     */
+    @NotNull
+    Header[] headers;
+    /**
+     * The time in milliseconds since the epoch at which the response was received
+     */
+    long storedAt;
+
+    public boolean isFresh(final long ttl, final long now) {
+        return now - storedAt < ttl;
+    }
+}
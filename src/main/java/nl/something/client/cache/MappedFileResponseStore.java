@@ -0,0 +1,342 @@
+package nl.something.client.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Persistent response store backed by a memory-mapped file of fixed capacity. Records are appended with their body deflated, an in-memory index points to
+ * the latest record of every key. The file is only mapped and indexed on first use, so it doesn't slow down startup. Indexing reads every record, so on a
+ * large file the first lookup waits for it; call {@link #loadInBackground()} after creating the store to index it off the request path. When the file is
+ * full the live records are compacted to the start of the file, records that still don't fit are not stored.
+ *
+ * All access is synchronized, this tier is only consulted when the in-memory tier misses.
+ */
+@Slf4j
+public class MappedFileResponseStore implements Closeable {
+    private static final int MAGIC = 0x52434332;
+    private static final int HEADER_SIZE = 12;
+    private static final int NO_CONTENT_TYPE = -1;
+    /**
+     * The largest factor by which deflate can shrink data, bounding the body length a record can claim
+     */
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    private final Path file;
+    private final int capacity;
+    private final Map<String, Integer> index = new HashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private int writePosition;
+    private boolean unavailable;
+
+    /**
+     * @param file The file to store responses in, created if it doesn't exist
+     * @param capacity The size of the file in bytes
+     */
+    public MappedFileResponseStore(@NotNull final Path file, final int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Maps and indexes the file on a background thread. Lookups that arrive before indexing has finished wait for it.
+     *
+     * @return This store
+     */
+    @NotNull
+    public MappedFileResponseStore loadInBackground() {
+        final Thread loader = new Thread(this::load, "response-store-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return this;
+    }
+
+    private synchronized void load() {
+        ensureLoaded();
+    }
+
+    @Nullable
+    public synchronized CachedResponse get(@NotNull final String key) {
+        if (!ensureLoaded()) {
+            return null;
+        }
+        final Integer position = index.get(key);
+        if (position == null) {
+            return null;
+        }
+        try {
+            final ByteBuffer record = recordAt(position);
+            readKey(record);
+            return readResponse(record);
+        } catch (final DataFormatException | RuntimeException e) {
+            log.warn("Unable to read cached response for {} from {}", key, file, e);
+            index.remove(key);
+            return null;
+        }
+    }
+
+    public synchronized void put(@NotNull final String key, @NotNull final CachedResponse response) {
+        if (!ensureLoaded()) {
+            return;
+        }
+        final byte[] record = encode(key, response);
+        if (writePosition + record.length > capacity) {
+            compact();
+        }
+        if (writePosition + record.length > capacity) {
+            log.debug("Response for {} of {} bytes does not fit in {}", key, record.length, file);
+            return;
+        }
+        write(writePosition, record);
+        index.put(key, writePosition);
+        setWritePosition(writePosition + record.length);
+    }
+
+    private boolean ensureLoaded() {
+        if (mapped != null || unavailable) {
+            return !unavailable;
+        }
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            if (mapped.getInt(0) != MAGIC) {
+                mapped.putInt(0, MAGIC);
+                setWritePosition(HEADER_SIZE);
+            } else {
+                buildIndex();
+            }
+            return true;
+        } catch (final IOException e) {
+            log.warn("Unable to open response store {}, continuing without it", file, e);
+            unavailable = true;
+            return false;
+        }
+    }
+
+    private void buildIndex() {
+        final int end = Math.min(Math.max(HEADER_SIZE, (int) mapped.getLong(4)), capacity);
+        int position = HEADER_SIZE;
+        while (position < end) {
+            try {
+                final ByteBuffer record = recordAt(position);
+                index.put(readKey(record), position);
+                position = skipResponse(record);
+            } catch (final RuntimeException e) {
+                log.warn("Response store {} is corrupt after position {}, discarding the remainder", file, position);
+                break;
+            }
+        }
+        setWritePosition(position);
+        log.info("Loaded {} cached responses from {}", index.size(), file);
+    }
+
+    /**
+     * Moves the latest record of every key to the start of the file
+     */
+    private void compact() {
+        final List<String> keys = new ArrayList<>(index.keySet());
+        final List<byte[]> records = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            final int position = index.get(key);
+            final ByteBuffer record = recordAt(position);
+            readKey(record);
+            final int length = skipResponse(record) - position;
+            final byte[] bytes = new byte[length];
+            recordAt(position).get(bytes);
+            records.add(bytes);
+        }
+        index.clear();
+        int position = HEADER_SIZE;
+        for (int i = 0; i < keys.size(); i++) {
+            write(position, records.get(i));
+            index.put(keys.get(i), position);
+            position += records.get(i).length;
+        }
+        setWritePosition(position);
+    }
+
+    @NotNull
+    private ByteBuffer recordAt(final int position) {
+        final ByteBuffer record = mapped.duplicate();
+        record.position(position);
+        return record;
+    }
+
+    private void write(final int position, @NotNull final byte[] record) {
+        recordAt(position).put(record);
+    }
+
+    private void setWritePosition(final int position) {
+        writePosition = position;
+        mapped.putLong(4, position);
+    }
+
+    @NotNull
+    private static byte[] encode(@NotNull final String key, @NotNull final CachedResponse response) {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final String contentType = response.getContentType();
+        final byte[] contentTypeBytes = contentType == null ? new byte[0] : contentType.getBytes(StandardCharsets.UTF_8);
+        final byte[] charsetBytes = response.getCharset().getBytes(StandardCharsets.UTF_8);
+        final Header[] headers = response.getHeaders();
+        final byte[][] headerBytes = new byte[headers.length * 2][];
+        int headersLength = 4;
+        for (int i = 0; i < headers.length; i++) {
+            headerBytes[2 * i] = headers[i].getName().getBytes(StandardCharsets.UTF_8);
+            headerBytes[2 * i + 1] = StringUtils.defaultString(headers[i].getValue()).getBytes(StandardCharsets.UTF_8);
+            headersLength += 4 + headerBytes[2 * i].length + 4 + headerBytes[2 * i + 1].length;
+        }
+        final byte[] body = deflate(response.getBody());
+        final ByteBuffer record = ByteBuffer.allocate(4 + keyBytes.length + 4 + 8 + 4 + contentTypeBytes.length + 4 + charsetBytes.length + headersLength
+            + 4 + 4 + body.length);
+        record.putInt(keyBytes.length).put(keyBytes);
+        record.putInt(response.getStatusCode());
+        record.putLong(response.getStoredAt());
+        record.putInt(contentType == null ? NO_CONTENT_TYPE : contentTypeBytes.length).put(contentTypeBytes);
+        record.putInt(charsetBytes.length).put(charsetBytes);
+        record.putInt(headers.length);
+        for (final byte[] bytes : headerBytes) {
+            record.putInt(bytes.length).put(bytes);
+        }
+        record.putInt(response.getBody().length);
+        record.putInt(body.length).put(body);
+        return record.array();
+    }
+
+    @NotNull
+    private static String readKey(@NotNull final ByteBuffer record) {
+        return readString(record, record.getInt());
+    }
+
+    @NotNull
+    private static CachedResponse readResponse(@NotNull final ByteBuffer record) throws DataFormatException {
+        final int statusCode = record.getInt();
+        final long storedAt = record.getLong();
+        final int contentTypeLength = record.getInt();
+        final String contentType = contentTypeLength == NO_CONTENT_TYPE ? null : readString(record, contentTypeLength);
+        final String charset = readString(record, record.getInt());
+        final int headerCount = record.getInt();
+        checkLength(record, headerCount * 8L);
+        final Header[] headers = new Header[headerCount];
+        for (int i = 0; i < headerCount; i++) {
+            headers[i] = new BasicHeader(readString(record, record.getInt()), readString(record, record.getInt()));
+        }
+        final int bodyLength = record.getInt();
+        final int compressedLength = record.getInt();
+        checkLength(record, compressedLength);
+        if (bodyLength < 0 || bodyLength > (long) compressedLength * MAX_DEFLATE_RATIO) {
+            throw new IllegalArgumentException("Invalid body length " + bodyLength + " for " + compressedLength + " compressed bytes");
+        }
+        final byte[] body = new byte[bodyLength];
+        final byte[] compressed = new byte[compressedLength];
+        record.get(compressed);
+        inflate(compressed, body);
+        return new CachedResponse(statusCode, contentType, charset, body, headers, storedAt);
+    }
+
+    /**
+     * Skips the response part of a record of which the key has been read
+     *
+     * @return The position right after the record
+     */
+    private static int skipResponse(@NotNull final ByteBuffer record) {
+        record.position(record.position() + 4 + 8);
+        skip(record, Math.max(0, record.getInt()));
+        skip(record, record.getInt());
+        final int headerCount = record.getInt();
+        checkLength(record, headerCount * 8L);
+        for (int i = 0; i < 2 * headerCount; i++) {
+            skip(record, record.getInt());
+        }
+        record.getInt();
+        skip(record, record.getInt());
+        return record.position();
+    }
+
+    private static void skip(@NotNull final ByteBuffer record, final int length) {
+        checkLength(record, length);
+        record.position(record.position() + length);
+    }
+
+    private static void checkLength(@NotNull final ByteBuffer record, final long length) {
+        if (length < 0 || length > record.remaining()) {
+            throw new IllegalArgumentException("Invalid length " + length + " at position " + record.position());
+        }
+    }
+
+    @NotNull
+    private static String readString(@NotNull final ByteBuffer record, final int length) {
+        checkLength(record, length);
+        final byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @NotNull
+    private static byte[] deflate(@NotNull final byte[] body) {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 2));
+            final byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void inflate(@NotNull final byte[] compressed, @NotNull final byte[] body) throws DataFormatException {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < body.length && !inflater.finished()) {
+                final int inflated = inflater.inflate(body, length, body.length - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new DataFormatException("Truncated body");
+                }
+                length += inflated;
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        unavailable = true;
+        if (mapped != null) {
+            mapped.force();
+            mapped = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        index.clear();
+    }
+}
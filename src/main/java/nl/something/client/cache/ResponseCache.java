@@ -0,0 +1,101 @@
+package nl.something.client.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of raw response bodies keyed by request URL. Lookups go to a bounded in-memory tier first and fall back to the optional disk tier, entries found
+ * on disk are promoted to memory. Entries are kept after they went stale, so they can still be served when the backend fails.
+ *
+ * Entries are written to the disk tier on a background thread, so storing a response doesn't make the request wait for compressing and writing it. When
+ * the writes fall behind, entries are only kept in memory.
+ */
+@Slf4j
+public class ResponseCache implements Closeable {
+    private static final int MAX_PENDING_WRITES = 1024;
+
+    private final Map<String, CachedResponse> memory;
+    private final MappedFileResponseStore diskStore;
+    private final ThreadPoolExecutor diskWriter;
+
+    /**
+     * @param maxMemoryEntries The number of entries kept in memory, the least recently used entry is evicted first
+     * @param diskStore The second tier (optional)
+     */
+    public ResponseCache(final int maxMemoryEntries, @Nullable final MappedFileResponseStore diskStore) {
+        this.memory = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxMemoryEntries;
+            }
+        });
+        this.diskStore = diskStore;
+        this.diskWriter = diskStore == null ? null : createDiskWriter();
+    }
+
+    @Nullable
+    public CachedResponse get(@NotNull final String key) {
+        final CachedResponse cached = memory.get(key);
+        if (cached != null || diskStore == null) {
+            return cached;
+        }
+        final CachedResponse stored = diskStore.get(key);
+        if (stored != null) {
+            memory.put(key, stored);
+        }
+        return stored;
+    }
+
+    public void put(@NotNull final String key, @NotNull final CachedResponse response) {
+        memory.put(key, response);
+        if (diskWriter != null) {
+            diskWriter.execute(() -> diskStore.put(key, response));
+        }
+    }
+
+    /**
+     * Writes the pending entries to the disk tier and closes it
+     */
+    @Override
+    public void close() throws IOException {
+        memory.clear();
+        if (diskWriter != null) {
+            diskWriter.shutdown();
+            try {
+                if (!diskWriter.awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("Closing the response store while entries are still being written");
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            diskStore.close();
+        }
+    }
+
+    @NotNull
+    private static ThreadPoolExecutor createDiskWriter() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_PENDING_WRITES),
+            ResponseCache::newThread, (task, rejected) -> log.debug("Response store writes are falling behind, keeping the entry in memory only"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @NotNull
+    private static Thread newThread(@NotNull final Runnable runnable) {
+        final Thread thread = new Thread(runnable, "response-cache-writer");
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,58 @@
+package nl.something.client.connection;
+
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves host names using the system resolver and keeps the resolved addresses for the configured time to live, so the lookup is not repeated on the
+ * request thread for every new connection.
+ */
+public class CachingDnsResolver implements DnsResolver {
+    private final ConcurrentHashMap<String, CachedAddresses> cache = new ConcurrentHashMap<>();
+    private final DnsResolver delegate;
+    private final long ttlNanos;
+
+    public CachingDnsResolver(final long ttl, @NotNull final TimeUnit unit) {
+        this(SystemDefaultDnsResolver.INSTANCE, ttl, unit);
+    }
+
+    public CachingDnsResolver(@NotNull final DnsResolver delegate, final long ttl, @NotNull final TimeUnit unit) {
+        this.delegate = delegate;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    @Override
+    public InetAddress[] resolve(final String host) throws UnknownHostException {
+        final long now = System.nanoTime();
+        final CachedAddresses cached = cache.get(host);
+        if (cached != null && now - cached.resolvedAt < ttlNanos) {
+            return cached.addresses.clone();
+        }
+        final InetAddress[] addresses = delegate.resolve(host);
+        cache.put(host, new CachedAddresses(addresses.clone(), now));
+        return addresses;
+    }
+
+    /**
+     * Removes all cached addresses, forcing the next connection to every host to resolve it again
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    private static final class CachedAddresses {
+        private final InetAddress[] addresses;
+        private final long resolvedAt;
+
+        private CachedAddresses(final InetAddress[] addresses, final long resolvedAt) {
+            this.addresses = addresses;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package nl.something.client.connection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens a number of connections to a route up front and hands them back to the pool, so the first requests find established (and TLS handshaken)
+ * connections instead of paying for DNS lookup and connection setup on the request thread. All warm-ups share a small pool of threads, which stop when
+ * they have been idle for a while.
+ */
+@Slf4j
+public class ConnectionWarmer {
+    private static final int MAX_PARALLELISM = 8;
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private final HttpClientConnectionManager connectionManager;
+
+    public ConnectionWarmer(@NotNull final HttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * Opens the given number of connections in parallel, after which the optional health request is fired. The calling thread is blocked at most for the
+     * given budget, any work that is not done by then continues in the background.
+     *
+     * @param route The route to open connections for
+     * @param connections The number of connections to open
+     * @param connectTimeout The connect timeout in milliseconds (-1 for none)
+     * @param healthRequest Executed once after all connections have been opened (optional)
+     * @param budget The maximum time in milliseconds the calling thread is blocked
+     *
+     * @return Whether the warm-up completed within the budget
+     */
+    public boolean warmUp(@NotNull final HttpRoute route, final int connections, final int connectTimeout, @Nullable final Runnable healthRequest,
+                          final long budget) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+        // Connections stay leased until all have been opened, otherwise the pool would hand the same connection out again
+        final Queue<HttpClientConnection> leased = new ConcurrentLinkedQueue<>();
+        final AtomicInteger remaining = new AtomicInteger(connections);
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final Runnable complete = () -> {
+            try {
+                HttpClientConnection connection;
+                while ((connection = leased.poll()) != null) {
+                    connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+                }
+                if (healthRequest != null) {
+                    healthRequest.run();
+                }
+            } finally {
+                completed.countDown();
+            }
+        };
+        if (connections <= 0) {
+            EXECUTOR.execute(complete);
+        }
+        for (int i = 0; i < connections; i++) {
+            EXECUTOR.execute(() -> {
+                try {
+                    leased.add(openConnection(route, connectTimeout, deadline));
+                } catch (final IOException | InterruptedException | ExecutionException | TimeoutException e) {
+                    failures.incrementAndGet();
+                    log.warn("Unable to open warm-up connection to {}", route, e);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    complete.run();
+                }
+            });
+        }
+        try {
+            final boolean done = completed.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!done) {
+                log.warn("Warm-up of {} did not complete within {}ms, continuing in the background", route, budget);
+            }
+            return done && failures.get() == 0;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @NotNull
+    private HttpClientConnection openConnection(@NotNull final HttpRoute route, final int connectTimeout, final long deadline)
+        throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        final ConnectionRequest connectionRequest = connectionManager.requestConnection(route, null);
+        final HttpClientConnection connection = connectionRequest.get(Math.max(1, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        if (!connection.isOpen()) {
+            try {
+                final HttpClientContext context = HttpClientContext.create();
+                connectionManager.connect(connection, route, Math.max(0, connectTimeout), context);
+                connectionManager.routeComplete(connection, route, context);
+            } catch (final IOException e) {
+                connection.shutdown();
+                connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    @NotNull
+    private static ThreadPoolExecutor createExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_PARALLELISM, MAX_PARALLELISM, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            ConnectionWarmer::newThread);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @NotNull
+    private static Thread newThread(@NotNull final Runnable runnable) {
+        final Thread thread = new Thread(runnable, "rest-client-warm-up");
+        thread.setDaemon(true);
+        return thread;
+    }
+}
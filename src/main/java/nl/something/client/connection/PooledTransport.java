@@ -0,0 +1,124 @@
+package nl.something.client.connection;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.something.client.buffer.ByteBufferPool;
+import nl.something.client.timeout.HashedWheelTimer;
+import nl.something.client.tracing.TracingConnectionManager;
+import nl.something.client.tracing.TracingRequestExecutor;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A connection pool and the HTTP client executing requests on it. A transport can be shared by the services of several backends, which then share the
+ * capacity of the pool, while the limit per route keeps a single backend from taking all connections. The pool of response body buffers and the timer
+ * aborting requests that exceed their deadline are owned by the transport as well, so they are shared in the same way and the timer thread lives exactly
+ * as long as the pool.
+ */
+@Slf4j
+public class PooledTransport implements Closeable {
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ByteBufferPool bufferPool;
+    private final HashedWheelTimer deadlineTimer = new HashedWheelTimer("rest-client-deadline", 10, TimeUnit.MILLISECONDS, 512);
+
+    /**
+     * @param maxConnections The maximum number of connections of the pool (0 for the default of the pool)
+     * @param maxConnectionsPerRoute The default maximum number of connections per route (0 for the default of the pool)
+     * @param dnsCacheTtl The time in milliseconds resolved host addresses are cached (0 to disable caching)
+     * @param bufferPool The pool response bodies are read into
+     */
+    public PooledTransport(final int maxConnections, final int maxConnectionsPerRoute, final long dnsCacheTtl, @NotNull final ByteBufferPool bufferPool) {
+        final Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", SSLConnectionSocketFactory.getSocketFactory())
+            .build();
+        final DnsResolver dnsResolver = dnsCacheTtl > 0
+            ? new CachingDnsResolver(dnsCacheTtl, TimeUnit.MILLISECONDS)
+            : SystemDefaultDnsResolver.INSTANCE;
+        this.connectionManager = new TracingConnectionManager(socketFactoryRegistry, dnsResolver);
+        if (maxConnections > 0) {
+            connectionManager.setMaxTotal(maxConnections);
+        }
+        if (maxConnectionsPerRoute > 0) {
+            connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        }
+        this.httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setRequestExecutor(new TracingRequestExecutor())
+            .build();
+        this.bufferPool = bufferPool;
+    }
+
+    @NotNull
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @NotNull
+    public PoolingHttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    @NotNull
+    public ByteBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * @return The timer aborting requests once their deadline has passed, its thread is started when the first deadline is scheduled
+     */
+    @NotNull
+    public HashedWheelTimer getDeadlineTimer() {
+        return deadlineTimer;
+    }
+
+    /**
+     * Limits the number of connections to the given route, connections that are leased above a lowered limit are closed once they are released
+     *
+     * @param route The route to limit
+     * @param maxConnections The maximum number of connections to the route
+     */
+    public void setMaxConnections(@NotNull final HttpRoute route, final int maxConnections) {
+        connectionManager.setMaxPerRoute(route, maxConnections);
+    }
+
+    /**
+     * Resets the maximum number of connections to the given route to the default maximum per route
+     *
+     * @param route The route to reset
+     */
+    public void resetMaxConnections(@NotNull final HttpRoute route) {
+        connectionManager.setMaxPerRoute(route, connectionManager.getDefaultMaxPerRoute());
+    }
+
+    /**
+     * @return The default maximum number of connections per route
+     */
+    public int getDefaultMaxConnections() {
+        return connectionManager.getDefaultMaxPerRoute();
+    }
+
+    /**
+     * Closes all connections of the pool and stops the deadline timer, requests that are still executing fail
+     */
+    @Override
+    public void close() throws IOException {
+        log.debug("Closing connection pool {}", connectionManager.getTotalStats());
+        deadlineTimer.close();
+        httpClient.close();
+    }
+}
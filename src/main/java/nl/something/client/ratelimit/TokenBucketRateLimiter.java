@@ -0,0 +1,73 @@
+package nl.something.client.ratelimit;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter that allows bursts up to the bucket size and a sustained rate of the given number of permits per second.
+ *
+ * The bucket is tracked as a single theoretical arrival time (the moment the bucket would be full again), which is updated with a compare-and-set, so
+ * concurrent callers never block each other. A caller that would exceed the rate is told how long to wait for its permit, the permit is only reserved if
+ * that wait is within the maximum the caller is willing to wait.
+ */
+public class TokenBucketRateLimiter {
+    private final LongSupplier nanoTime;
+    private final AtomicLong theoreticalArrivalTime;
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+
+    /**
+     * @param permitsPerSecond The sustained rate
+     * @param burst The number of permits that can be handed out at once after the limiter has been idle
+     */
+    public TokenBucketRateLimiter(final double permitsPerSecond, final int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    /**
+     * @param permitsPerSecond The sustained rate
+     * @param burst The number of permits that can be handed out at once after the limiter has been idle
+     * @param nanoTime The source of the current time in nanoseconds, {@link System#nanoTime()} unless the time is driven by a test
+     */
+    public TokenBucketRateLimiter(final double permitsPerSecond, final int burst, @NotNull final LongSupplier nanoTime) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("The rate must be positive, but was " + permitsPerSecond);
+        }
+        this.nanoTime = nanoTime;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstToleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.theoreticalArrivalTime = new AtomicLong(nanoTime.getAsLong() - burstToleranceNanos - intervalNanos);
+    }
+
+    /**
+     * Reserves a permit if it becomes available within the given maximum wait.
+     *
+     * @param maxWaitNanos The maximum time the caller is willing to wait for the permit
+     * @return The time in nanoseconds the caller has to wait before using the permit, or -1 if no permit was reserved
+     */
+    public long reserve(final long maxWaitNanos) {
+        while (true) {
+            final long now = nanoTime.getAsLong();
+            final long current = theoreticalArrivalTime.get();
+            final long start = current - now > 0 ? current : now;
+            final long waitNanos = Math.max(0, start - burstToleranceNanos - now);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrivalTime.compareAndSet(current, start + intervalNanos)) {
+                return waitNanos;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit reserved earlier that ends up not being used, e.g. because the request is rejected by another limiter. Returning a permit can't
+     * grant more than the burst, as a bucket is never fuller than full.
+     */
+    public void release() {
+        theoreticalArrivalTime.addAndGet(-intervalNanos);
+    }
+}
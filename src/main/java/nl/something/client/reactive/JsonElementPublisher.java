@@ -0,0 +1,221 @@
+package nl.something.client.reactive;
+
+import nl.something.client.response.converter.impl.JsonResponseConverter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the elements of a JSON array or NDJSON body one by one, as they are parsed from the chunks of the response body. A new chunk is only requested
+ * from the body once all elements parsed from the previous chunk have been delivered and the subscriber has outstanding demand, so a slow subscriber
+ * slows down reading from the socket instead of filling up memory.
+ * <p>
+ * Cancelling cancels the subscription to the body, also when it arrives after cancelling, as that is what aborts the exchange and releases the connection.
+ * Cancelling the future of the call doesn't abort the exchange on every JDK.
+ */
+public class JsonElementPublisher<T> implements Flow.Publisher<T> {
+    private final Supplier<CompletableFuture<Flow.Publisher<List<ByteBuffer>>>> body;
+    private final Class<T> elementType;
+    private final Function<Throwable, Throwable> errorMapper;
+
+    /**
+     * @param body Starts the call, completing with the body of a successful response
+     * @param elementType The type every element is bound to
+     * @param errorMapper Maps failures of the call and of reading the body to the error signalled to the subscriber
+     */
+    public JsonElementPublisher(@NotNull final Supplier<CompletableFuture<Flow.Publisher<List<ByteBuffer>>>> body, @NotNull final Class<T> elementType,
+                                @NotNull final Function<Throwable, Throwable> errorMapper) {
+        this.body = body;
+        this.elementType = elementType;
+        this.errorMapper = errorMapper;
+    }
+
+    @Override
+    public void subscribe(@NotNull final Flow.Subscriber<? super T> subscriber) {
+        final NonBlockingJsonElementParser<T> parser;
+        try {
+            parser = new NonBlockingJsonElementParser<>(JsonResponseConverter.getMapper(), elementType);
+        } catch (final IOException e) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    // Nothing to deliver
+                }
+
+                @Override
+                public void cancel() {
+                    // Nothing to cancel
+                }
+            });
+            subscriber.onError(e);
+            return;
+        }
+        subscriber.onSubscribe(new ElementSubscription(subscriber, parser));
+    }
+
+    private final class ElementSubscription implements Flow.Subscription, Flow.Subscriber<List<ByteBuffer>> {
+        private final Flow.Subscriber<? super T> downstream;
+        private final NonBlockingJsonElementParser<T> parser;
+        private final Queue<T> elements = new ConcurrentLinkedQueue<>();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean chunkRequested = new AtomicBoolean();
+        private volatile Flow.Subscription upstream;
+        private volatile boolean upstreamDone;
+        private volatile Throwable error;
+        private volatile boolean cancelled;
+        private boolean terminated;
+
+        private ElementSubscription(@NotNull final Flow.Subscriber<? super T> downstream, @NotNull final NonBlockingJsonElementParser<T> parser) {
+            this.downstream = downstream;
+            this.parser = parser;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Requested " + n + " elements, the request must be positive"));
+                return;
+            }
+            demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            if (!cancelled && started.compareAndSet(false, true)) {
+                final CompletableFuture<Flow.Publisher<List<ByteBuffer>>> current;
+                try {
+                    current = body.get();
+                } catch (final RuntimeException e) {
+                    fail(e);
+                    return;
+                }
+                current.whenComplete((publisher, e) -> {
+                    if (e != null) {
+                        fail(errorMapper.apply(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+                    } else {
+                        // Subscribed even when cancelled in the meantime, so the body subscription is cancelled right away
+                        publisher.subscribe(this);
+                    }
+                });
+            }
+            drain();
+        }
+
+        /**
+         * Cancels the body subscription, or marks it to be cancelled as soon as the response headers arrive
+         */
+        @Override
+        public void cancel() {
+            cancelled = true;
+            final Flow.Subscription current = upstream;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+
+        @Override
+        public void onSubscribe(@NotNull final Flow.Subscription subscription) {
+            upstream = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                drain();
+            }
+        }
+
+        @Override
+        public void onNext(@NotNull final List<ByteBuffer> chunk) {
+            try {
+                for (final ByteBuffer buffer : chunk) {
+                    parser.feed(buffer, elements::add);
+                }
+            } catch (final IOException | RuntimeException e) {
+                upstream.cancel();
+                fail(errorMapper.apply(e));
+                return;
+            }
+            chunkRequested.set(false);
+            drain();
+        }
+
+        @Override
+        public void onError(@NotNull final Throwable throwable) {
+            fail(errorMapper.apply(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                parser.endOfInput(elements::add);
+            } catch (final IOException | RuntimeException e) {
+                fail(errorMapper.apply(e));
+                return;
+            }
+            upstreamDone = true;
+            drain();
+        }
+
+        private void fail(@NotNull final Throwable throwable) {
+            error = throwable;
+            upstreamDone = true;
+            drain();
+        }
+
+        /**
+         * Delivers parsed elements as long as there is demand and requests the next chunk once they ran out. Only one thread drains at a time, signals
+         * arriving while draining make the draining thread loop once more.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!terminated && !cancelled) {
+                    emit();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            final long requested = demand.get();
+            long emitted = 0;
+            while (emitted != requested && !cancelled) {
+                final T element = elements.poll();
+                if (element == null) {
+                    break;
+                }
+                downstream.onNext(element);
+                emitted++;
+            }
+            if (emitted > 0 && requested != Long.MAX_VALUE) {
+                demand.addAndGet(-emitted);
+            }
+            if (cancelled || !elements.isEmpty()) {
+                return;
+            }
+            if (upstreamDone) {
+                terminated = true;
+                final Throwable failure = error;
+                if (failure != null) {
+                    downstream.onError(failure);
+                } else {
+                    downstream.onComplete();
+                }
+            } else if (demand.get() > 0 && upstream != null && chunkRequested.compareAndSet(false, true)) {
+                upstream.request(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package nl.something.client.reactive;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Parses the elements of a top-level JSON array, or the values of a newline delimited JSON body, from chunks of bytes as they arrive. Tokens are buffered
+ * until an element is complete, after which it is bound to the element type, so only the element that is being received is held in memory.
+ */
+class NonBlockingJsonElementParser<T> {
+    private final ObjectMapper mapper;
+    private final Class<T> elementType;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private Boolean array;
+    private int depth;
+    private TokenBuffer element;
+
+    NonBlockingJsonElementParser(@NotNull final ObjectMapper mapper, @NotNull final Class<T> elementType) throws IOException {
+        this.mapper = mapper;
+        this.elementType = elementType;
+        this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Parses the chunk, passing every element that is completed by it to the sink
+     */
+    void feed(@NotNull final ByteBuffer chunk, @NotNull final Consumer<T> sink) throws IOException {
+        final int length = chunk.remaining();
+        if (length == 0) {
+            return;
+        }
+        if (chunk.hasArray()) {
+            final int offset = chunk.arrayOffset() + chunk.position();
+            feeder.feedInput(chunk.array(), offset, offset + length);
+        } else {
+            final byte[] bytes = new byte[length];
+            chunk.duplicate().get(bytes);
+            feeder.feedInput(bytes, 0, length);
+        }
+        parseAvailable(sink);
+    }
+
+    /**
+     * Signals that all chunks have been fed
+     *
+     * @throws IOException In case the input ended in the middle of an element
+     */
+    void endOfInput(@NotNull final Consumer<T> sink) throws IOException {
+        feeder.endOfInput();
+        parseAvailable(sink);
+        if (element != null || (array == Boolean.TRUE && depth > 0)) {
+            throw new IOException("Unexpected end of JSON input");
+        }
+    }
+
+    private void parseAvailable(@NotNull final Consumer<T> sink) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            handle(token, sink);
+        }
+    }
+
+    private void handle(@NotNull final JsonToken token, @NotNull final Consumer<T> sink) throws IOException {
+        if (array == null) {
+            array = token == JsonToken.START_ARRAY;
+            if (array) {
+                depth = 1;
+                return;
+            }
+        }
+        final int elementDepth = array ? 1 : 0;
+        if (element == null) {
+            if (array && token == JsonToken.END_ARRAY) {
+                depth = 0;
+                return;
+            }
+            element = new TokenBuffer(mapper, false);
+        }
+        element.copyCurrentEvent(parser);
+        if (token.isStructStart()) {
+            depth++;
+        } else if (token.isStructEnd()) {
+            depth--;
+        }
+        if (depth == elementDepth) {
+            final T value = mapper.readValue(element.asParser(), elementType);
+            element = null;
+            sink.accept(value);
+        }
+    }
+}
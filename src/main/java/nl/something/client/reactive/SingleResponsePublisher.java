@@ -0,0 +1,75 @@
+package nl.something.client.reactive;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the result of an asynchronous call as a single element. The call is started on the first request of every subscriber, and cancelling the
+ * subscription cancels the call. Failing to start the call is signalled to the subscriber like any other failure.
+ */
+public class SingleResponsePublisher<T> implements Flow.Publisher<T> {
+    private final Supplier<CompletableFuture<T>> call;
+
+    public SingleResponsePublisher(@NotNull final Supplier<CompletableFuture<T>> call) {
+        this.call = call;
+    }
+
+    @Override
+    public void subscribe(@NotNull final Flow.Subscriber<? super T> subscriber) {
+        subscriber.onSubscribe(new Flow.Subscription() {
+            private final AtomicBoolean started = new AtomicBoolean();
+            private volatile CompletableFuture<T> future;
+            private volatile boolean cancelled;
+
+            @Override
+            public void request(final long n) {
+                if (cancelled || !started.compareAndSet(false, true)) {
+                    return;
+                }
+                if (n <= 0) {
+                    cancelled = true;
+                    subscriber.onError(new IllegalArgumentException("Requested " + n + " elements, the request must be positive"));
+                    return;
+                }
+                final CompletableFuture<T> current;
+                try {
+                    current = call.get();
+                } catch (final RuntimeException e) {
+                    cancelled = true;
+                    subscriber.onError(e);
+                    return;
+                }
+                future = current;
+                if (cancelled) {
+                    current.cancel(true);
+                    return;
+                }
+                current.whenComplete((value, error) -> {
+                    if (cancelled) {
+                        return;
+                    }
+                    if (error != null) {
+                        subscriber.onError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                    } else {
+                        subscriber.onNext(value);
+                        subscriber.onComplete();
+                    }
+                });
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                final CompletableFuture<T> current = future;
+                if (current != null) {
+                    current.cancel(true);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package nl.something.client.response.converter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a response type of which instances are never modified after conversion, so a single converted instance can be shared by all callers that receive
+ * the same response body.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ImmutableResponse {
+}
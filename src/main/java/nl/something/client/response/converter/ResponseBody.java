@@ -0,0 +1,123 @@
+package nl.something.client.response.converter;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * The raw bytes of a response body together with the charset to decode them with. Converters that can work on bytes read them directly from the buffer,
+ * the text is only decoded when a converter asks for it. The buffer may be pooled, so converters must not hold on to it after converting.
+ */
+public class ResponseBody implements AutoCloseable {
+    private final ByteBuffer content;
+    private final Charset charset;
+    private final Consumer<ByteBuffer> releaser;
+    private String text;
+    private boolean closed;
+
+    /**
+     * @param content The buffer containing the body between its position and limit
+     * @param charset The charset to decode the body with
+     * @param releaser Called with the buffer when the body is closed (optional)
+     */
+    public ResponseBody(@NotNull final ByteBuffer content, @NotNull final Charset charset, @Nullable final Consumer<ByteBuffer> releaser) {
+        this.content = content;
+        this.charset = charset;
+        this.releaser = releaser;
+    }
+
+    @NotNull
+    public static ResponseBody of(@NotNull final String text) {
+        final ResponseBody body = new ResponseBody(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, null);
+        body.text = text;
+        return body;
+    }
+
+    public boolean isEmpty() {
+        return !content.hasRemaining();
+    }
+
+    public int getLength() {
+        return content.remaining();
+    }
+
+    @NotNull
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * @return A read-only view of the body, positioned at its start
+     */
+    @NotNull
+    public ByteBuffer asByteBuffer() {
+        return content.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return A copy of the body that stays valid after the body is closed
+     */
+    @NotNull
+    public byte[] toByteArray() {
+        final byte[] bytes = new byte[content.remaining()];
+        content.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @NotNull
+    public InputStream asInputStream() {
+        return new ByteBufferBackedInputStream(content.duplicate());
+    }
+
+    /**
+     * @return The body decoded with its charset, decoded once and cached
+     */
+    @NotNull
+    public String asString() {
+        if (text == null) {
+            if (content.hasArray()) {
+                text = new String(content.array(), content.arrayOffset() + content.position(), content.remaining(), charset);
+            } else {
+                text = charset.decode(content.duplicate()).toString();
+            }
+        }
+        return text;
+    }
+
+    /**
+     * @return Whether the bytes of the body can be read from {@link #getArray()} without copying
+     */
+    public boolean hasArray() {
+        return content.hasArray();
+    }
+
+    /**
+     * @return The backing array of the body, the body starts at {@link #getArrayOffset()} and is {@link #getLength()} bytes long
+     * @throws UnsupportedOperationException In case the body is not backed by an accessible array
+     */
+    @NotNull
+    public byte[] getArray() {
+        return content.array();
+    }
+
+    public int getArrayOffset() {
+        return content.arrayOffset() + content.position();
+    }
+
+    /**
+     * Hands the buffer back to its owner, the body must not be used afterwards
+     */
+    @Override
+    public void close() {
+        if (releaser != null && !closed) {
+            closed = true;
+            releaser.accept(content);
+        }
+    }
+}
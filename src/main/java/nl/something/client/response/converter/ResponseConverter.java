@@ -8,4 +8,12 @@ import java.io.IOException;
 public interface ResponseConverter {
     @Nullable
     <T> T convert(@NotNull final String body, @Nullable final String type, @NotNull final Class<T> targetType) throws IOException;
+
+    /**
+     * Converts the raw response body, by default its decoded text is converted. Converters that can read bytes should override this to skip decoding.
+     */
+    @Nullable
+    default <T> T convert(@NotNull final ResponseBody body, @Nullable final String type, @NotNull final Class<T> targetType) throws IOException {
+        return convert(body.asString(), type, targetType);
+    }
 }
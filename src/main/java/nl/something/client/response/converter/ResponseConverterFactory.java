@@ -1,10 +1,14 @@
 package nl.something.client.response.converter;
 
 import lombok.experimental.UtilityClass;
+import nl.something.client.response.converter.impl.CborResponseConverter;
 import nl.something.client.response.converter.impl.EmptyBodyResponseConverter;
 import nl.something.client.response.converter.impl.JsonResponseConverter;
+import nl.something.client.response.converter.impl.ProtobufResponseConverter;
+import nl.something.client.response.converter.impl.SmileResponseConverter;
 import nl.something.client.response.converter.impl.StringResponseConverter;
 import nl.something.client.response.converter.impl.XMLResponseConverter;
+import org.apache.commons.lang3.ObjectUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -15,9 +19,31 @@ public class ResponseConverterFactory {
     private static final ResponseConverter[] RESPONSE_CONVERTERS = new ResponseConverter[]{
             new EmptyBodyResponseConverter(),
             new JsonResponseConverter(),
+            new CborResponseConverter(),
+            new SmileResponseConverter(),
+            new ProtobufResponseConverter(),
             new StringResponseConverter(),
             new XMLResponseConverter()
     };
+    private static final String BINARY_ACCEPT =
+            CborResponseConverter.MEDIA_TYPE + ", " + SmileResponseConverter.MEDIA_TYPE + ";q=0.9, application/json;q=0.8";
+    private static final String PROTOBUF_ACCEPT = ProtobufResponseConverter.MEDIA_TYPE + ", application/json;q=0.8";
+
+    /**
+     * Determine the Accept header that asks the backend for the cheapest format the given type can be converted from
+     *
+     * @param targetType The object type the response is converted to
+     * @return The Accept header value, or null when the type is not converted from a structured format or may be served as XML, which is left to the
+     * backend as before
+     */
+    @Nullable
+    public static String determineAccept(@NotNull final Class<?> targetType) {
+        if (targetType.isAssignableFrom(String.class) || targetType == ObjectUtils.Null.class || targetType == byte[].class
+            || XMLResponseConverter.isXmlType(targetType)) {
+            return null;
+        }
+        return ProtobufResponseConverter.isMessageType(targetType) ? PROTOBUF_ACCEPT : BINARY_ACCEPT;
+    }
 
     @NotNull
     public static <T> T convert(@NotNull final String body, @Nullable final String type, @NotNull final Class<T> targetType) throws IOException {
@@ -29,4 +55,15 @@ public class ResponseConverterFactory {
         }
         throw new IOException("Unable to convert response " + body + " with type " + type + " to " + targetType);
     }
+
+    @NotNull
+    public static <T> T convert(@NotNull final ResponseBody body, @Nullable final String type, @NotNull final Class<T> targetType) throws IOException {
+        for (final ResponseConverter responseConverter : RESPONSE_CONVERTERS) {
+            final T response = responseConverter.convert(body, type, targetType);
+            if (response != null) {
+                return response;
+            }
+        }
+        throw new IOException("Unable to convert response " + body.asString() + " with type " + type + " to " + targetType);
+    }
 }
@@ -0,0 +1,41 @@
+package nl.something.client.response.converter.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.something.client.response.converter.ResponseBody;
+import nl.something.client.response.converter.ResponseConverter;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Converts bodies of a binary Jackson data format. These bodies are only read from their bytes, decoded text is never converted.
+ */
+abstract class BinaryJacksonResponseConverter implements ResponseConverter {
+    private final String mediaType;
+    private final ObjectMapper mapper;
+
+    BinaryJacksonResponseConverter(@NotNull final String mediaType, @NotNull final ObjectMapper mapper) {
+        this.mediaType = mediaType;
+        this.mapper = mapper;
+    }
+
+    @Nullable
+    @Override
+    public <T> T convert(final @NotNull String body, @Nullable final String type, final @NotNull Class<T> targetType) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public <T> T convert(final @NotNull ResponseBody body, @Nullable final String type, final @NotNull Class<T> targetType) throws IOException {
+        if (!StringUtils.contains(type, mediaType)) {
+            return null;
+        }
+        if (body.hasArray()) {
+            return mapper.readValue(body.getArray(), body.getArrayOffset(), body.getLength(), targetType);
+        }
+        return mapper.readValue(body.asInputStream(), targetType);
+    }
+}
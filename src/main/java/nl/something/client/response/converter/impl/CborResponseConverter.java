@@ -0,0 +1,11 @@
+package nl.something.client.response.converter.impl;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+public class CborResponseConverter extends BinaryJacksonResponseConverter {
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    public CborResponseConverter() {
+        super(MEDIA_TYPE, new CBORMapper());
+    }
+}
@@ -1,5 +1,6 @@
 package nl.something.client.response.converter.impl;
 
+import nl.something.client.response.converter.ResponseBody;
 import nl.something.client.response.converter.ResponseConverter;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -16,12 +17,23 @@ public class EmptyBodyResponseConverter implements ResponseConverter {
     @Nullable
     @Override
     public <T> T convert(final @NotNull String body, final @Nullable String type, final @NotNull Class<T> targetType) throws IOException {
+        return convert(StringUtils.isEmpty(body), targetType);
+    }
+
+    @Nullable
+    @Override
+    public <T> T convert(final @NotNull ResponseBody body, final @Nullable String type, final @NotNull Class<T> targetType) throws IOException {
+        return convert(body.isEmpty(), targetType);
+    }
+
+    @Nullable
+    private static <T> T convert(final boolean empty, final @NotNull Class<T> targetType) throws IOException {
         if (targetType == ObjectUtils.Null.class) {
             @SuppressWarnings("unchecked")
             final T result = (T) ObjectUtils.NULL;
             return result;
         }
-        if (StringUtils.isEmpty(body)) {
+        if (empty) {
             throw new IOException("Response body is absent, though required");
         }
         return null;
@@ -0,0 +1,83 @@
+package nl.something.client.response.converter.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Incrementally reads the elements of a top-level JSON array, or the values of a newline delimited JSON (NDJSON) body. Only a single element is bound at a
+ * time and the underlying stream is only read as far as needed for the next element: the start of an element is only looked for when {@link #hasNext()}
+ * is called, so returning an element never waits for the bytes of the one after it.
+ */
+public class JsonElementIterator<T> implements Iterator<T>, Closeable {
+    private final JsonParser parser;
+    private final Class<T> elementType;
+    private final boolean array;
+    private boolean positioned;
+    private boolean finished;
+
+    public JsonElementIterator(@NotNull final InputStream content, @NotNull final Class<T> elementType) throws IOException {
+        this.parser = JsonResponseConverter.getMapper().getFactory().createParser(content);
+        this.elementType = elementType;
+        final JsonToken firstToken = parser.nextToken();
+        this.array = firstToken == JsonToken.START_ARRAY;
+        // The first token of an NDJSON body already is the start of its first value
+        this.positioned = !array;
+        this.finished = firstToken == null;
+    }
+
+    /**
+     * @throws UncheckedIOException In case the start of the next element could not be read
+     */
+    @Override
+    public boolean hasNext() {
+        if (!finished && !positioned) {
+            try {
+                final JsonToken token = parser.nextToken();
+                finished = token == null || (array && token == JsonToken.END_ARRAY);
+                positioned = true;
+            } catch (final IOException e) {
+                finished = true;
+                throw new UncheckedIOException(e);
+            }
+        }
+        return !finished;
+    }
+
+    /**
+     * @throws UncheckedIOException In case the element could not be read or bound to the element type
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        positioned = false;
+        try {
+            return JsonResponseConverter.getMapper().readValue(parser, elementType);
+        } catch (final IOException e) {
+            finished = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return Whether the end of the elements has been read, without reading any further
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        parser.close();
+    }
+}
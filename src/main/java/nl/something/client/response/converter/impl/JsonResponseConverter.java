@@ -2,6 +2,7 @@ package nl.something.client.response.converter.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import nl.something.client.response.converter.ResponseBody;
 import nl.something.client.response.converter.ResponseConverter;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -9,23 +10,60 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 @Slf4j
 public class JsonResponseConverter implements ResponseConverter {
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    /**
+     * @return The mapper JSON responses are bound with, shared by all paths reading JSON so they bind elements the same way
+     */
+    @NotNull
+    public static ObjectMapper getMapper() {
+        return mapper;
+    }
+
     @Nullable
     @Override
     public <T> T convert(final @NotNull String body, @Nullable final String type, final @NotNull Class<T> targetType)
             throws IOException {
-        final boolean contentTypeJson = type != null && type.contains("application/json");
-        if (contentTypeJson || isLegacyJson(body, type)) {
+        if (isContentTypeJson(type) || isLegacyJson(body, type)) {
             return mapper.readValue(body, targetType);
         }
         return null;
     }
 
+    /**
+     * Parses JSON bodies straight from their bytes, as long as they are encoded in a charset Jackson detects by itself. Bodies of other types are only
+     * decoded when they could be legacy JSON, so binary bodies are left to the converters of their type.
+     */
+    @Nullable
+    @Override
+    public <T> T convert(final @NotNull ResponseBody body, @Nullable final String type, final @NotNull Class<T> targetType)
+            throws IOException {
+        if (!isContentTypeJson(type)) {
+            return isLegacyType(type) ? convert(body.asString(), type, targetType) : null;
+        }
+        if (!UTF_8.equals(body.getCharset())) {
+            return convert(body.asString(), type, targetType);
+        }
+        if (body.hasArray()) {
+            return mapper.readValue(body.getArray(), body.getArrayOffset(), body.getLength(), targetType);
+        }
+        return mapper.readValue(body.asInputStream(), targetType);
+    }
+
+    private static boolean isContentTypeJson(final @Nullable String type) {
+        return type != null && type.contains("application/json");
+    }
+
+    private static boolean isLegacyType(final @Nullable String type) {
+        return StringUtils.isEmpty(type) || type.contains("text/plain");
+    }
+
     private static boolean isLegacyJson(final @NotNull String body, final @Nullable String type) {
-        final boolean isLegacyJson = (StringUtils.isEmpty(type) || type.contains("text/plain")) && (body.startsWith("{") || body.startsWith("["));
+        final boolean isLegacyJson = isLegacyType(type) && (body.startsWith("{") || body.startsWith("["));
         if (isLegacyJson) {
             // FIXME [hk 19/apr/2023]: WAAS-5129 Remove legacy JSON case
             log.error("Legacy JSON {} found for type {}, check the call stack", body, type, new IOException());
@@ -0,0 +1,66 @@
+package nl.something.client.response.converter.impl;
+
+import nl.something.client.response.converter.ResponseBody;
+import nl.something.client.response.converter.ResponseConverter;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts Protobuf bodies to generated message types, through the static {@code parseFrom(byte[])} method every generated message has. The method is
+ * looked up reflectively, so the Protobuf runtime is only required by bundles that actually use generated messages.
+ */
+public class ProtobufResponseConverter implements ResponseConverter {
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+    private static final String ALTERNATIVE_MEDIA_TYPE = "application/protobuf";
+    private static final ConcurrentHashMap<Class<?>, Optional<Method>> PARSE_METHODS = new ConcurrentHashMap<>();
+
+    @Nullable
+    @Override
+    public <T> T convert(final @NotNull String body, @Nullable final String type, final @NotNull Class<T> targetType) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public <T> T convert(final @NotNull ResponseBody body, @Nullable final String type, final @NotNull Class<T> targetType) throws IOException {
+        if (!StringUtils.containsAny(type, MEDIA_TYPE, ALTERNATIVE_MEDIA_TYPE)) {
+            return null;
+        }
+        final Method parseMethod = findParseMethod(targetType)
+            .orElseThrow(() -> new IOException("Unable to convert Protobuf response to " + targetType + ", it is not a generated message type"));
+        try {
+            return targetType.cast(parseMethod.invoke(null, (Object) body.toByteArray()));
+        } catch (final InvocationTargetException e) {
+            throw new IOException("Failed to parse Protobuf response to " + targetType, e.getCause());
+        } catch (final IllegalAccessException e) {
+            throw new IOException("Failed to parse Protobuf response to " + targetType, e);
+        }
+    }
+
+    /**
+     * Whether the given type is a generated Protobuf message type
+     */
+    public static boolean isMessageType(@NotNull final Class<?> type) {
+        return findParseMethod(type).isPresent();
+    }
+
+    @NotNull
+    private static Optional<Method> findParseMethod(@NotNull final Class<?> type) {
+        return PARSE_METHODS.computeIfAbsent(type, key -> {
+            try {
+                final Method method = key.getMethod("parseFrom", byte[].class);
+                return Modifier.isStatic(method.getModifiers()) && key.isAssignableFrom(method.getReturnType()) ? Optional.of(method) : Optional.empty();
+            } catch (final NoSuchMethodException e) {
+                return Optional.empty();
+            }
+        });
+    }
+}
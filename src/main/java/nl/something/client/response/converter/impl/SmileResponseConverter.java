@@ -0,0 +1,11 @@
+package nl.something.client.response.converter.impl;
+
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+public class SmileResponseConverter extends BinaryJacksonResponseConverter {
+    public static final String MEDIA_TYPE = "application/x-jackson-smile";
+
+    public SmileResponseConverter() {
+        super(MEDIA_TYPE, new SmileMapper());
+    }
+}
@@ -10,6 +10,8 @@ import org.jetbrains.annotations.Nullable;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
 import javax.xml.transform.stream.StreamSource;
 import java.io.IOException;
 import java.io.StringReader;
@@ -28,6 +30,13 @@ public class XMLResponseConverter implements ResponseConverter {
         return null;
     }
 
+    /**
+     * @return Whether the given type is mapped with JAXB, so responses may be XML
+     */
+    public static boolean isXmlType(@NotNull final Class<?> type) {
+        return type.isAnnotationPresent(XmlRootElement.class) || type.isAnnotationPresent(XmlType.class);
+    }
+
     @NotNull
     public <T> T deserializeXml(@NotNull final Class<T> clazz, @NotNull final String entityString) throws IOException {
         try {
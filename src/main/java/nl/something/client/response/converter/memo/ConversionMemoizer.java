@@ -0,0 +1,132 @@
+package nl.something.client.response.converter.memo;
+
+import lombok.Value;
+import nl.something.client.response.converter.ImmutableResponse;
+import nl.something.client.response.converter.ResponseBody;
+import nl.something.client.response.converter.ResponseConverterFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the results of converting response bodies to types marked with {@link ImmutableResponse}, so a body that is received again is not converted
+ * again and all callers share the same instance. Results are keyed by a 128-bit MurmurHash3 of the body bytes, the content type and the target type, the
+ * bodies themselves are not kept. Bodies of other types are always converted.
+ *
+ * The results are spread over stripes by their hash, each a small LRU map with its own lock, so concurrent lookups of different bodies rarely contend.
+ * Eviction is least recently used per stripe.
+ */
+public class ConversionMemoizer {
+    private static final long SEED = 0x9747b28cL;
+    private static final int MAX_STRIPES = 16;
+
+    private final Map<Key, Object>[] stripes;
+    private final MemoizedValueStrength strength;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxEntries The number of results that are kept, the least recently used result of a stripe is evicted first
+     * @param strength How the results are referenced
+     */
+    public ConversionMemoizer(final int maxEntries, @NotNull final MemoizedValueStrength strength) {
+        final int stripeCount = Math.max(1, Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, maxEntries / MAX_STRIPES))));
+        this.stripes = createStripes(stripeCount, Math.max(1, maxEntries / stripeCount));
+        this.strength = strength;
+    }
+
+    @NotNull
+    private static Map<Key, Object>[] createStripes(final int stripeCount, final int maxEntriesPerStripe) {
+        @SuppressWarnings("unchecked") final Map<Key, Object>[] stripes = (Map<Key, Object>[]) new Map<?, ?>[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Key, Object> eldest) {
+                    return size() > maxEntriesPerStripe;
+                }
+            });
+        }
+        return stripes;
+    }
+
+    /**
+     * Converts the body the same way {@link ResponseConverterFactory#convert(ResponseBody, String, Class)} does, returning the earlier result for the same
+     * body when the target type is immutable
+     */
+    @NotNull
+    public <T> T convert(@NotNull final ResponseBody body, @Nullable final String type, @NotNull final Class<T> targetType) throws IOException {
+        if (body.isEmpty() || !targetType.isAnnotationPresent(ImmutableResponse.class)) {
+            return ResponseConverterFactory.convert(body, type, targetType);
+        }
+        final long[] hash = Murmur3Hash.hash128(body.asByteBuffer(), SEED);
+        final Key key = new Key(hash[0], hash[1], body.getLength(), type, targetType);
+        final Map<Key, Object> results = stripes[(int) (hash[0] & (stripes.length - 1))];
+        final T memoized = targetType.cast(dereference(results.get(key)));
+        if (memoized != null) {
+            hits.increment();
+            return memoized;
+        }
+        misses.increment();
+        final T converted = ResponseConverterFactory.convert(body, type, targetType);
+        results.put(key, reference(converted));
+        return converted;
+    }
+
+    /**
+     * @return The number of conversions that were skipped
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of conversions of immutable types that had to be done
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public void clear() {
+        for (final Map<Key, Object> results : stripes) {
+            results.clear();
+        }
+    }
+
+    @NotNull
+    private Object reference(@NotNull final Object value) {
+        switch (strength) {
+            case SOFT:
+                return new SoftReference<>(value);
+            case WEAK:
+                return new WeakReference<>(value);
+            default:
+                return value;
+        }
+    }
+
+    @Nullable
+    private static Object dereference(@Nullable final Object value) {
+        return value instanceof Reference ? ((Reference<?>) value).get() : value;
+    }
+
+    @Value
+    private static class Key {
+        long hash1;
+        long hash2;
+        int length;
+        @Nullable
+        String contentType;
+        @NotNull
+        Class<?> targetType;
+    }
+}
@@ -0,0 +1,19 @@
+package nl.something.client.response.converter.memo;
+
+/**
+ * How memoized conversion results are referenced
+ */
+public enum MemoizedValueStrength {
+    /**
+     * Results are kept until they are evicted
+     */
+    STRONG,
+    /**
+     * Results may be collected when memory runs low
+     */
+    SOFT,
+    /**
+     * Results are collected as soon as no caller references them anymore
+     */
+    WEAK
+}
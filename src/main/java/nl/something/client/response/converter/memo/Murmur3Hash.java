@@ -0,0 +1,89 @@
+package nl.something.client.response.converter.memo;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The 128-bit x64 variant of MurmurHash3, computed over the remaining bytes of a buffer without copying them
+ */
+@UtilityClass
+class Murmur3Hash {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * @return The two halves of the hash, the position of the buffer is not changed
+     */
+    @NotNull
+    @SuppressWarnings("fallthrough")
+    static long[] hash128(@NotNull final ByteBuffer buffer, final long seed) {
+        final ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        final int offset = data.position();
+        final int length = data.remaining();
+        final int blocks = length / 16;
+        long h1 = seed;
+        long h2 = seed;
+        for (int i = 0; i < blocks; i++) {
+            final int index = offset + i * 16;
+            h1 ^= mixK1(data.getLong(index));
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(data.getLong(index + 8));
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        final int tail = offset + blocks * 16;
+        long k1 = 0;
+        long k2 = 0;
+        switch (length & 15) {
+            case 15: k2 ^= (long) (data.get(tail + 14) & 0xff) << 48;
+            case 14: k2 ^= (long) (data.get(tail + 13) & 0xff) << 40;
+            case 13: k2 ^= (long) (data.get(tail + 12) & 0xff) << 32;
+            case 12: k2 ^= (long) (data.get(tail + 11) & 0xff) << 24;
+            case 11: k2 ^= (long) (data.get(tail + 10) & 0xff) << 16;
+            case 10: k2 ^= (long) (data.get(tail + 9) & 0xff) << 8;
+            case 9: k2 ^= data.get(tail + 8) & 0xff;
+                h2 ^= mixK2(k2);
+            case 8: k1 ^= (long) (data.get(tail + 7) & 0xff) << 56;
+            case 7: k1 ^= (long) (data.get(tail + 6) & 0xff) << 48;
+            case 6: k1 ^= (long) (data.get(tail + 5) & 0xff) << 40;
+            case 5: k1 ^= (long) (data.get(tail + 4) & 0xff) << 32;
+            case 4: k1 ^= (long) (data.get(tail + 3) & 0xff) << 24;
+            case 3: k1 ^= (long) (data.get(tail + 2) & 0xff) << 16;
+            case 2: k1 ^= (long) (data.get(tail + 1) & 0xff) << 8;
+            case 1: k1 ^= data.get(tail) & 0xff;
+                h1 ^= mixK1(k1);
+            default:
+                break;
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    private static long mixK1(final long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(final long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
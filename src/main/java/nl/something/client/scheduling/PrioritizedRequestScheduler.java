@@ -0,0 +1,164 @@
+package nl.something.client.scheduling;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of requests that execute at the same time and hands out the free slots by priority, with 0 being the highest priority. Within a
+ * priority slots are handed out in arrival order.
+ *
+ * To protect low priority work against starvation, a waiting request that has waited longer than the starvation threshold is served before requests of a
+ * higher priority, the one that has waited longest first.
+ */
+public class PrioritizedRequestScheduler {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter>[] queues;
+    private final int maxConcurrent;
+    private final long starvationThresholdNanos;
+    private int executing;
+
+    /**
+     * @param maxConcurrent The maximum number of requests executing at the same time
+     * @param priorities The number of priorities
+     * @param starvationThreshold The wait after which a request is served regardless of its priority
+     * @param unit The unit of the starvation threshold
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PrioritizedRequestScheduler(final int maxConcurrent, final int priorities, final long starvationThreshold, @NotNull final TimeUnit unit) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("The maximum number of concurrent requests must be positive, but was " + maxConcurrent);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.starvationThresholdNanos = unit.toNanos(starvationThreshold);
+        this.queues = new ArrayDeque[priorities];
+        for (int i = 0; i < priorities; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Acquires a slot to execute a request, waiting at most the given time for it. A slot that is acquired has to be released.
+     *
+     * @param priority The priority of the request, 0 being the highest
+     * @param maxWaitNanos The maximum time to wait for a slot (negative to wait indefinitely)
+     * @return Whether a slot was acquired
+     * @throws InterruptedException In case the thread was interrupted while waiting for a slot
+     */
+    public boolean acquire(final int priority, final long maxWaitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (executing < maxConcurrent && isEmpty()) {
+                executing++;
+                return true;
+            }
+            if (maxWaitNanos == 0) {
+                return false;
+            }
+            final Waiter waiter = new Waiter(lock.newCondition(), System.nanoTime());
+            queues[priority].addLast(waiter);
+            long remainingNanos = maxWaitNanos;
+            try {
+                while (!waiter.granted) {
+                    if (maxWaitNanos < 0) {
+                        waiter.condition.await();
+                    } else if (remainingNanos > 0) {
+                        remainingNanos = waiter.condition.awaitNanos(remainingNanos);
+                    } else {
+                        queues[priority].remove(waiter);
+                        return false;
+                    }
+                }
+                return true;
+            } catch (final InterruptedException e) {
+                if (waiter.granted) {
+                    release();
+                } else {
+                    queues[priority].remove(waiter);
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot, handing it to the next waiting request
+     */
+    public void release() {
+        lock.lock();
+        try {
+            executing--;
+            final Waiter next = next();
+            if (next != null) {
+                executing++;
+                next.granted = true;
+                next.condition.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of requests waiting for a slot
+     */
+    public int getWaiting() {
+        lock.lock();
+        try {
+            int waiting = 0;
+            for (final ArrayDeque<Waiter> queue : queues) {
+                waiting += queue.size();
+            }
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    private Waiter next() {
+        final long now = System.nanoTime();
+        ArrayDeque<Waiter> starved = null;
+        ArrayDeque<Waiter> highest = null;
+        for (final ArrayDeque<Waiter> queue : queues) {
+            final Waiter head = queue.peekFirst();
+            if (head == null) {
+                continue;
+            }
+            if (highest == null) {
+                highest = queue;
+            }
+            if (now - head.enqueuedAt >= starvationThresholdNanos && (starved == null || head.enqueuedAt - starved.peekFirst().enqueuedAt < 0)) {
+                starved = queue;
+            }
+        }
+        final ArrayDeque<Waiter> queue = starved != null ? starved : highest;
+        return queue == null ? null : queue.pollFirst();
+    }
+
+    private boolean isEmpty() {
+        for (final ArrayDeque<Waiter> queue : queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private final long enqueuedAt;
+        private boolean granted;
+
+        private Waiter(@NotNull final Condition condition, final long enqueuedAt) {
+            this.condition = condition;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
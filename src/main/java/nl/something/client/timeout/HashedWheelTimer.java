@@ -0,0 +1,173 @@
+package nl.something.client.timeout;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Timer that runs all scheduled tasks from a single thread, using a hashed wheel of buckets that is advanced one bucket per tick. Scheduling and
+ * cancelling are constant time and lock-free, at the cost of tasks firing up to one tick late. Tasks should be short, as they run on the timer thread.
+ */
+@Slf4j
+public class HashedWheelTimer implements Closeable {
+    private final String threadName;
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] wheel;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile Thread worker;
+    private long startTime;
+    private long tick;
+
+    /**
+     * @param threadName The name of the timer thread
+     * @param tickDuration The precision of the timer
+     * @param unit The unit of the tick duration
+     * @param wheelSize The number of buckets, rounded up to a power of two
+     */
+    public HashedWheelTimer(@NotNull final String threadName, final long tickDuration, @NotNull final TimeUnit unit, final int wheelSize) {
+        this.threadName = threadName;
+        this.tickNanos = Math.max(1, unit.toNanos(tickDuration));
+        final int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.wheel = createWheel(size);
+    }
+
+    @NotNull
+    private static Queue<Timeout>[] createWheel(final int size) {
+        @SuppressWarnings("unchecked") final Queue<Timeout>[] wheel = (Queue<Timeout>[]) new Queue<?>[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        return wheel;
+    }
+
+    /**
+     * Schedules the task to run once after the given delay, the timer thread is started on the first call.
+     *
+     * @return A handle to cancel the task with
+     */
+    @NotNull
+    public Timeout schedule(@NotNull final Runnable task, final long delay, @NotNull final TimeUnit unit) {
+        if (closed) {
+            throw new IllegalStateException("Timer " + threadName + " has been closed");
+        }
+        start();
+        final Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(delay));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    private void start() {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            startTime = System.nanoTime();
+            final Thread thread = new Thread(this::run, threadName);
+            thread.setDaemon(true);
+            worker = thread;
+            thread.start();
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            final long sleepNanos = startTime + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+            transferPending();
+            expireBucket(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            final long ticks = Math.max(tick, (timeout.deadline - startTime) / tickNanos);
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void expireBucket(@NotNull final Queue<Timeout> bucket) {
+        for (int i = bucket.size(); i > 0; i--) {
+            final Timeout timeout = bucket.poll();
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                bucket.add(timeout);
+            } else {
+                timeout.expire();
+            }
+        }
+    }
+
+    /**
+     * Stops the timer thread, tasks that have not fired yet never will
+     */
+    @Override
+    public void close() {
+        closed = true;
+        final Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public static final class Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+        private long remainingRounds;
+
+        private Timeout(@NotNull final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return Whether the task was cancelled, false if it already fired or was cancelled before
+         */
+        public boolean cancel() {
+            return state.compareAndSet(INIT, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(INIT, EXPIRED)) {
+                try {
+                    task.run();
+                } catch (final RuntimeException e) {
+                    log.warn("Timer task {} failed", task, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package nl.something.client.tracing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands finished spans to the exporter in batches on a daemon thread. Request threads only put spans in a ring buffer, so a slow exporter never delays a
+ * request, spans that do not fit in the buffer are dropped and counted.
+ */
+@Slf4j
+class BatchSpanProcessor implements Closeable {
+    private final SpanRingBuffer buffer;
+    private final SpanExporter exporter;
+    private final int batchSize;
+    private final long exportIntervalNanos;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    BatchSpanProcessor(@NotNull final SpanExporter exporter, final int bufferSize, final int batchSize, final long exportInterval,
+                       @NotNull final TimeUnit unit) {
+        this.buffer = new SpanRingBuffer(bufferSize);
+        this.exporter = exporter;
+        this.batchSize = batchSize;
+        this.exportIntervalNanos = unit.toNanos(exportInterval);
+        this.thread = new Thread(this::run, "rest-client-span-export");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void add(@NotNull final ClientSpan span) {
+        if (closed || !buffer.offer(span)) {
+            dropped.increment();
+        }
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Exports all spans that are in the buffer on the calling thread
+     */
+    void flush() {
+        while (exportBatch() == batchSize) {
+            // Keep exporting until the buffer has been drained
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.NANOSECONDS.toMillis(exportIntervalNanos) + 1000);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void run() {
+        while (!closed) {
+            if (exportBatch() < batchSize) {
+                LockSupport.parkNanos(this, exportIntervalNanos);
+            }
+        }
+    }
+
+    private synchronized int exportBatch() {
+        final List<ClientSpan> batch = new ArrayList<>(batchSize);
+        ClientSpan span;
+        while (batch.size() < batchSize && (span = buffer.poll()) != null) {
+            batch.add(span);
+        }
+        if (!batch.isEmpty()) {
+            try {
+                exporter.export(batch);
+            } catch (final RuntimeException e) {
+                log.warn("Failed to export {} spans", batch.size(), e);
+            }
+        }
+        return batch.size();
+    }
+}
@@ -0,0 +1,56 @@
+package nl.something.client.tracing;
+
+import lombok.Builder;
+import lombok.Value;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A finished call to a backend. The phase durations are in nanoseconds and 0 when the phase did not take place, such as connecting when a pooled
+ * connection was reused.
+ */
+@Value
+@Builder
+public class ClientSpan {
+    @NotNull
+    String traceId;
+    @NotNull
+    String spanId;
+    /**
+     * The span the call was made for (null when the call started a new trace)
+     */
+    @Nullable
+    String parentSpanId;
+    @NotNull
+    String method;
+    @NotNull
+    String url;
+    /**
+     * The status code of the response (-1 when no response was received)
+     */
+    int statusCode;
+    /**
+     * The exception the call failed with (null when it succeeded)
+     */
+    @Nullable
+    String error;
+    /**
+     * The time in milliseconds since the epoch at which the call started
+     */
+    long startTime;
+    long durationNanos;
+    /**
+     * Waiting for admission by the rate limits and the request scheduler, and for a connection from the pool
+     */
+    long leaseNanos;
+    /**
+     * Opening a new connection, including the TLS handshake
+     */
+    long connectNanos;
+    /**
+     * Sending the request and waiting for the response headers
+     */
+    long serverWaitNanos;
+    long bodyReadNanos;
+    long conversionNanos;
+}
@@ -0,0 +1,30 @@
+package nl.something.client.tracing;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps all exported spans in memory, meant for tests
+ */
+public class InMemorySpanExporter implements SpanExporter {
+    private final List<ClientSpan> spans = new ArrayList<>();
+
+    @Override
+    public synchronized void export(@NotNull final List<ClientSpan> spans) {
+        this.spans.addAll(spans);
+    }
+
+    /**
+     * @return A copy of the spans exported so far
+     */
+    @NotNull
+    public synchronized List<ClientSpan> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    public synchronized void clear() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,78 @@
+package nl.something.client.tracing;
+
+import org.apache.http.HttpMessage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates a client span for every call, propagates it to the backend in the W3C {@code traceparent} header and exports the finished spans in batches.
+ * Services without a tracer do not create spans at all.
+ *
+ * The span is a child of the context in the request attribute {@link #PARENT_ATTRIBUTE}, or else of the {@code traceparent} header of the request.
+ * Without either, the call starts a new trace. Calls of which the parent is not sampled propagate the context without recording a span.
+ */
+public class RestClientTracer implements Closeable {
+    /**
+     * The request attribute holding the {@code traceparent} of the span the call is made for
+     */
+    public static final String PARENT_ATTRIBUTE = "nl.something.client.tracing.parent";
+
+    private final BatchSpanProcessor processor;
+
+    /**
+     * @param exporter Receives the finished spans
+     * @param bufferSize The number of finished spans that can wait for export, further spans are dropped
+     * @param batchSize The maximum number of spans per export
+     * @param exportInterval The time in milliseconds the export thread waits when there are no spans to export
+     */
+    public RestClientTracer(@NotNull final SpanExporter exporter, final int bufferSize, final int batchSize, final long exportInterval) {
+        this.processor = new BatchSpanProcessor(exporter, bufferSize, batchSize, exportInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public RestClientTracer(@NotNull final SpanExporter exporter) {
+        this(exporter, 2048, 512, 1000);
+    }
+
+    /**
+     * Starts the span of a call and sets its {@code traceparent} header on the request
+     *
+     * @param parent The {@code traceparent} of the span the call is made for (optional)
+     * @return The recorder of the span, or null when the parent is not sampled
+     */
+    @Nullable
+    public SpanRecorder start(@NotNull final HttpMessage httpRequest, @NotNull final String method, @NotNull final String url,
+                              @Nullable final String parent) {
+        final TraceContext parentContext = TraceContext.parse(parent);
+        final TraceContext context = parentContext == null ? TraceContext.newRoot() : parentContext.newChild();
+        httpRequest.setHeader(TraceContext.TRACEPARENT_HEADER, context.toTraceparent());
+        if (!context.isSampled()) {
+            return null;
+        }
+        return new SpanRecorder(processor, context, parentContext == null ? null : parentContext.getSpanId(), method, url);
+    }
+
+    /**
+     * @return The number of spans that were dropped because the export could not keep up
+     */
+    public long getDroppedSpans() {
+        return processor.getDropped();
+    }
+
+    /**
+     * Exports the finished spans that are waiting for export on the calling thread
+     */
+    public void flush() {
+        processor.flush();
+    }
+
+    /**
+     * Stops the export thread after exporting the remaining spans
+     */
+    @Override
+    public void close() {
+        processor.close();
+    }
+}
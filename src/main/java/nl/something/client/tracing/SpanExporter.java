@@ -0,0 +1,12 @@
+package nl.something.client.tracing;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Receives finished spans in batches, always from the same export thread
+ */
+public interface SpanExporter {
+    void export(@NotNull List<ClientSpan> spans);
+}
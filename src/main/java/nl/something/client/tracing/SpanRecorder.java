@@ -0,0 +1,97 @@
+package nl.something.client.tracing;
+
+import org.apache.http.protocol.HttpContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects the timings of a single call while it executes. A recorder is used by the thread executing the call only, the connection pool and request
+ * executor find it in the context of the request.
+ */
+public final class SpanRecorder {
+    static final String CONTEXT_ATTRIBUTE = SpanRecorder.class.getName();
+
+    private final BatchSpanProcessor processor;
+    private final TraceContext context;
+    private final String parentSpanId;
+    private final String method;
+    private final String url;
+    private final long startTime = System.currentTimeMillis();
+    private final long start = System.nanoTime();
+    private long connectNanos;
+    private long serverWaitStart;
+    private long serverWaitNanos;
+    private long bodyReadNanos;
+    private long conversionNanos;
+    private int statusCode = -1;
+    private String error;
+
+    SpanRecorder(@NotNull final BatchSpanProcessor processor, @NotNull final TraceContext context, @Nullable final String parentSpanId,
+                 @NotNull final String method, @NotNull final String url) {
+        this.processor = processor;
+        this.context = context;
+        this.parentSpanId = parentSpanId;
+        this.method = method;
+        this.url = url;
+    }
+
+    @Nullable
+    static SpanRecorder get(@Nullable final HttpContext context) {
+        return context == null ? null : (SpanRecorder) context.getAttribute(CONTEXT_ATTRIBUTE);
+    }
+
+    /**
+     * Makes the recorder available to the connection pool and request executor
+     */
+    public void attach(@NotNull final HttpContext context) {
+        context.setAttribute(CONTEXT_ATTRIBUTE, this);
+    }
+
+    void connected(final long nanos) {
+        connectNanos += nanos;
+    }
+
+    void requestSent(final long start) {
+        serverWaitStart = start;
+    }
+
+    void responseReceived(final int statusCode, final long nanos) {
+        this.statusCode = statusCode;
+        this.serverWaitNanos = nanos;
+    }
+
+    public void bodyRead(final long nanos) {
+        bodyReadNanos += nanos;
+    }
+
+    public void converted(final long nanos) {
+        conversionNanos += nanos;
+    }
+
+    public void failed(@NotNull final Throwable e) {
+        error = e.getClass().getName() + ": " + e.getMessage();
+    }
+
+    /**
+     * Finishes the span and queues it for export
+     */
+    public void end() {
+        final long leaseNanos = serverWaitStart == 0 ? 0 : Math.max(0, serverWaitStart - start - connectNanos);
+        processor.add(ClientSpan.builder()
+            .traceId(context.getTraceId())
+            .spanId(context.getSpanId())
+            .parentSpanId(parentSpanId)
+            .method(method)
+            .url(url)
+            .statusCode(statusCode)
+            .error(error)
+            .startTime(startTime)
+            .durationNanos(System.nanoTime() - start)
+            .leaseNanos(leaseNanos)
+            .connectNanos(connectNanos)
+            .serverWaitNanos(serverWaitNanos)
+            .bodyReadNanos(bodyReadNanos)
+            .conversionNanos(conversionNanos)
+            .build());
+    }
+}
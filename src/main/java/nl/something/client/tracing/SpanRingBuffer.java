@@ -0,0 +1,58 @@
+package nl.something.client.tracing;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring buffer for many producers and a single consumer. Producers claim a slot with a compare-and-set on the tail and never wait, when the buffer
+ * is full the span is dropped instead.
+ */
+class SpanRingBuffer {
+    private final AtomicReferenceArray<ClientSpan> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    SpanRingBuffer(final int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return Whether the span was added, false when the buffer is full
+     */
+    boolean offer(@NotNull final ClientSpan span) {
+        while (true) {
+            final long current = tail.get();
+            if (current - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(current, current + 1)) {
+                slots.lazySet((int) current & mask, span);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest span, may only be called by one thread at a time
+     *
+     * @return The span, or null when the buffer is empty or the oldest slot has been claimed but not yet filled
+     */
+    @Nullable
+    ClientSpan poll() {
+        final long current = head;
+        final int index = (int) current & mask;
+        final ClientSpan span = slots.get(index);
+        if (span == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head = current + 1;
+        return span;
+    }
+}
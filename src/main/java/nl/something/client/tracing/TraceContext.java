@@ -0,0 +1,85 @@
+package nl.something.client.tracing;
+
+import lombok.Value;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The identifiers of a span as propagated in the W3C {@code traceparent} header
+ */
+@Value
+public class TraceContext {
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    private static final Pattern TRACEPARENT = Pattern.compile("00-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})");
+    private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+    private static final String INVALID_SPAN_ID = "0000000000000000";
+
+    @NotNull
+    String traceId;
+    @NotNull
+    String spanId;
+    boolean sampled;
+
+    /**
+     * @return The context of the given header, or null when the header is absent or malformed
+     */
+    @Nullable
+    public static TraceContext parse(@Nullable final String traceparent) {
+        if (traceparent == null) {
+            return null;
+        }
+        final Matcher matcher = TRACEPARENT.matcher(traceparent.trim());
+        if (!matcher.matches() || INVALID_TRACE_ID.equals(matcher.group(1)) || INVALID_SPAN_ID.equals(matcher.group(2))) {
+            return null;
+        }
+        return new TraceContext(matcher.group(1), matcher.group(2), (Integer.parseInt(matcher.group(3), 16) & 1) == 1);
+    }
+
+    /**
+     * @return The context of the first span of a new, sampled trace
+     */
+    @NotNull
+    public static TraceContext newRoot() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new TraceContext(toHex(random.nextLong(), random.nextLong()), newSpanId(), true);
+    }
+
+    /**
+     * @return The context of a span that is a child of this one
+     */
+    @NotNull
+    public TraceContext newChild() {
+        return new TraceContext(traceId, newSpanId(), sampled);
+    }
+
+    @NotNull
+    public String toTraceparent() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    @NotNull
+    private static String newSpanId() {
+        long spanId;
+        do {
+            spanId = ThreadLocalRandom.current().nextLong();
+        } while (spanId == 0);
+        return toHex(spanId);
+    }
+
+    @NotNull
+    private static String toHex(final long... values) {
+        final StringBuilder hex = new StringBuilder(values.length * 16);
+        for (final long value : values) {
+            final String digits = Long.toHexString(value);
+            for (int i = digits.length(); i < 16; i++) {
+                hex.append('0');
+            }
+            hex.append(digits);
+        }
+        return hex.toString();
+    }
+}
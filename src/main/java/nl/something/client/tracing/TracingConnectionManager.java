@@ -0,0 +1,37 @@
+package nl.something.client.tracing;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Records the time spent opening connections for calls that are traced, calls without a span recorder only pay for a context lookup per new connection
+ */
+public class TracingConnectionManager extends PoolingHttpClientConnectionManager {
+    public TracingConnectionManager(@NotNull final Registry<ConnectionSocketFactory> socketFactoryRegistry, @NotNull final DnsResolver dnsResolver) {
+        super(socketFactoryRegistry, dnsResolver);
+    }
+
+    @Override
+    public void connect(final HttpClientConnection managedConn, final HttpRoute route, final int connectTimeout, final HttpContext context)
+        throws IOException {
+        final SpanRecorder span = SpanRecorder.get(context);
+        if (span == null) {
+            super.connect(managedConn, route, connectTimeout, context);
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            super.connect(managedConn, route, connectTimeout, context);
+        } finally {
+            span.connected(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package nl.something.client.tracing;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.IOException;
+
+/**
+ * Records the time from sending the request until the response headers have been received for calls that are traced
+ */
+public class TracingRequestExecutor extends HttpRequestExecutor {
+    @Override
+    public HttpResponse execute(final HttpRequest request, final HttpClientConnection conn, final HttpContext context)
+        throws IOException, HttpException {
+        final SpanRecorder span = SpanRecorder.get(context);
+        if (span == null) {
+            return super.execute(request, conn, context);
+        }
+        final long start = System.nanoTime();
+        span.requestSent(start);
+        final HttpResponse response = super.execute(request, conn, context);
+        span.responseReceived(response.getStatusLine().getStatusCode(), System.nanoTime() - start);
+        return response;
+    }
+}
@@ -0,0 +1,9 @@
+package nl.something.exceptions;
+
+public class RestCallConversionException extends RestCallException {
+    private static final long serialVersionUID = 6418230957162843075L;
+
+    public RestCallConversionException(final String url, final Throwable cause) {
+        super("Unable to convert the response to the requested object for URL " + url, cause);
+    }
+}
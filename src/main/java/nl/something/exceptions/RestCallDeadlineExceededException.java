@@ -0,0 +1,9 @@
+package nl.something.exceptions;
+
+public class RestCallDeadlineExceededException extends RestCallException {
+    private static final long serialVersionUID = 5902734127346419812L;
+
+    public RestCallDeadlineExceededException(final String url) {
+        super("The deadline of the request passed before it was sent for URL " + url, null);
+    }
+}
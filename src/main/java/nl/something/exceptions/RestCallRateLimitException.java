@@ -0,0 +1,9 @@
+package nl.something.exceptions;
+
+public class RestCallRateLimitException extends RestCallException {
+    private static final long serialVersionUID = 2741860192713560384L;
+
+    public RestCallRateLimitException(final String url) {
+        super("The client side rate limit was exceeded for URL " + url, null);
+    }
+}
@@ -0,0 +1,81 @@
+package nl.something.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RestClientAccessLogTest {
+    private static final String URL = "http://localhost/api";
+
+    @Mock
+    private Logger logger;
+
+    @Test
+    void everyCallIsLoggedAtFullSampleRate() {
+        when(logger.isInfoEnabled()).thenReturn(true);
+        final RestClientAccessLog accessLog = new RestClientAccessLog(logger, 1, -1);
+
+        accessLog.log("GET", URL, 200, TimeUnit.MILLISECONDS.toNanos(12));
+
+        verify(logger).info("method={} url={} status={} elapsedMs={}", "GET", URL, 200, 12L);
+    }
+
+    @Test
+    void onlyTheSampleOfCallsIsLogged() {
+        when(logger.isInfoEnabled()).thenReturn(true);
+        final RestClientAccessLog accessLog = new RestClientAccessLog(logger, 0.5, -1);
+
+        for (int i = 0; i < 1000; i++) {
+            accessLog.log("GET", URL, 200, 0);
+        }
+
+        final long logged = mockingDetails(logger).getInvocations().stream().filter(invocation -> "info".equals(invocation.getMethod().getName())).count();
+        assertThat(logged, allOf(greaterThan(350L), lessThan(650L)));
+    }
+
+    @Test
+    void slowCallsAreAlwaysLoggedAtWarn() {
+        lenient().when(logger.isInfoEnabled()).thenReturn(true);
+        when(logger.isWarnEnabled()).thenReturn(true);
+        final RestClientAccessLog accessLog = new RestClientAccessLog(logger, 0, 500);
+
+        accessLog.log("GET", URL, 200, TimeUnit.MILLISECONDS.toNanos(499));
+        accessLog.log("GET", URL, -1, TimeUnit.MILLISECONDS.toNanos(750));
+
+        verify(logger).warn("method={} url={} status={} elapsedMs={} slow=true", "GET", URL, -1, 750L);
+        verify(logger, never()).info(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void nothingIsFormattedWhenTheLevelIsDisabled() {
+        when(logger.isInfoEnabled()).thenReturn(false);
+        when(logger.isWarnEnabled()).thenReturn(false);
+        final RestClientAccessLog accessLog = new RestClientAccessLog(logger, 1, 500);
+
+        accessLog.log("GET", URL, 200, 0);
+        accessLog.log("GET", URL, 200, TimeUnit.SECONDS.toNanos(1));
+
+        verify(logger, times(1)).isInfoEnabled();
+        verify(logger, times(1)).isWarnEnabled();
+        verify(logger, never()).info(anyString(), any(Object[].class));
+        verify(logger, never()).warn(anyString(), any(Object[].class));
+    }
+}
@@ -0,0 +1,50 @@
+package nl.something.client;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.something.client.load.FaultInjectingStub;
+import nl.something.client.load.LatencyDistribution;
+import nl.something.client.load.LoadDriver;
+import nl.something.client.load.LoadReport;
+import nl.something.client.load.StubBehaviour;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class RestClientServiceLoadTest {
+    private static final int CALLERS = 8;
+    private static final int REQUESTS_PER_CALLER = 10;
+    private static final int TIMEOUT = 150;
+    /**
+     * Generous, so the test doesn't depend on the scheduling of a loaded machine. A dripped body that is not aborted by the deadline completes about 230
+     * milliseconds after the timeout.
+     */
+    private static final int MAX_TIMEOUT_LATENESS = TIMEOUT;
+
+    @Test
+    void timeoutsUnderConcurrentLoad() throws Exception {
+        final StubBehaviour behaviour = StubBehaviour.builder()
+            .latency(LatencyDistribution.logNormal(20, 1.0))
+            .errorRate(0.05)
+            .resetRate(0.02)
+            .slowDripRate(0.05)
+            .slowDripDelay(20)
+            .build();
+        try (final FaultInjectingStub stub = new FaultInjectingStub(behaviour);
+             final RestClientService service = new RestClientService(stub.getBaseUrl(), TIMEOUT)) {
+            final LoadDriver driver = new LoadDriver(service,
+                () -> RestClientRequest.create(HttpGet.METHOD_NAME, RestClientServiceTest.TestClass.class).path("/load").build(), TIMEOUT);
+
+            final LoadReport report = driver.run(CALLERS, REQUESTS_PER_CALLER);
+            log.info("Load report: {}", report);
+
+            assertEquals(CALLERS * REQUESTS_PER_CALLER, report.getCalls());
+            assertTrue(report.getSuccesses() > 0);
+            assertTrue(report.getLatencyPercentile(99) >= report.getLatencyPercentile(50));
+            // Slowly dripped bodies stay within the socket timeout, so they have to be aborted by the deadline
+            assertTrue(report.getTimeoutLatenessPercentile(100) < MAX_TIMEOUT_LATENESS, report.toString());
+        }
+    }
+}
@@ -1,35 +1,72 @@
 package nl.something.client;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
 import lombok.Getter;
 import lombok.Setter;
+import nl.something.client.buffer.ByteBufferPool;
+import nl.something.client.buffer.ByteBufferPoolMetrics;
+import nl.something.client.cache.MappedFileResponseStore;
+import nl.something.client.cache.ResponseCache;
+import nl.something.client.connection.PooledTransport;
+import nl.something.client.load.FaultInjectingStub;
+import nl.something.client.load.LatencyDistribution;
+import nl.something.client.load.StubBehaviour;
+import nl.something.client.response.converter.ImmutableResponse;
+import nl.something.client.response.converter.memo.ConversionMemoizer;
+import nl.something.client.response.converter.memo.MemoizedValueStrength;
+import nl.something.client.tracing.ClientSpan;
+import nl.something.client.tracing.InMemorySpanExporter;
+import nl.something.client.tracing.RestClientTracer;
+import nl.something.exceptions.RestCallConversionException;
+import nl.something.exceptions.RestCallDeadlineExceededException;
 import nl.something.exceptions.RestCallException;
+import nl.something.exceptions.RestCallRateLimitException;
 import nl.something.exceptions.RestCallResponseException;
 import nl.something.exceptions.RestCallTimeoutException;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.http.HttpHost;
 import org.apache.http.NoHttpResponseException;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.conn.routing.HttpRoute;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.json.Json;
+import javax.xml.bind.annotation.XmlRootElement;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import static com.adobe.granite.rest.Constants.CT_JSON;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.head;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.put;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
@@ -42,10 +79,14 @@ import static javax.servlet.http.HttpServletResponse.SC_OK;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 class RestClientServiceTest {
@@ -58,6 +99,14 @@ class RestClientServiceTest {
             .dynamicPort())
         .build();
 
+    /**
+     * The extension resets the stubs before every test, but not the global delay
+     */
+    @AfterEach
+    void resetGlobalFixedDelay() {
+        wireMock.setGlobalFixedDelay(0);
+    }
+
     @Test
     void httpClientGetCalled() throws IOException {
         final RestClientService restClientService = new RestClientService("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort(), -1);
@@ -456,9 +505,727 @@ class RestClientServiceTest {
         assertEquals("localhost:" + wireMock.getRuntimeInfo().getHttpPort() + " failed to respond", cause.getMessage());
     }
 
+    @Test
+    void warmUpFiresHealthRequest() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/health"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withBody("OK")));
+        try (final RestClientService restClientService = new RestClientService(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+            .dnsCacheTtl(60000)
+            .warmUpConnections(4)
+            .warmUpHealthPath("/health")
+            .warmUpBudget(10000)
+            .build())) {
+            assertTrue(restClientService.warmUp());
+            wireMock.verify(1, getRequestedFor(urlEqualTo("/health")));
+
+            wireMock.stubFor(get(urlEqualTo("/get/user/id"))
+                .willReturn(aResponse()
+                    .withStatus(SC_OK)
+                    .withHeader(CONTENT_TYPE, CT_JSON)
+                    .withBody("{\"value\":\"success\"}")));
+            final RestClientResponse<TestClass> response =
+                restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/get/user/id").build());
+            assertEquals("success", response.getValue().getValue());
+        }
+    }
+
+    @Test
+    void responseHeadersAreExposed() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/get/user/id"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, CT_JSON)
+                .withHeader("X-RateLimit-Remaining", "42")
+                .withHeader("Link", "</get/user/id?page=2>; rel=\"next\"", "</get/user/id?page=9>; rel=\"last\"")
+                .withBody("{\"value\":\"success\"}")));
+        wireMock.stubFor(head(urlEqualTo("/get/user/id"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader("X-RateLimit-Remaining", "41")));
+        wireMock.stubFor(head(urlEqualTo("/get/user/unknown"))
+            .willReturn(aResponse()
+                .withStatus(SC_NOT_FOUND)));
+        try (final RestClientService restClientService = new RestClientService("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort(), -1)) {
+            final RestClientResponse<TestClass> response =
+                restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/get/user/id").build());
+            assertEquals("success", response.getValue().getValue());
+            assertEquals("42", response.getHeaders().getFirst("x-ratelimit-remaining"));
+            assertEquals(2, response.getHeaders().getAll("Link").size());
+            assertEquals(Collections.emptyList(), response.getHeaders().getAll("ETag"));
+
+            final RestClientResponse<ObjectUtils.Null> headResponse =
+                restClientService.executeHeaders(RestClientRequest.create(HttpHead.METHOD_NAME).path("/get/user/id").build());
+            assertEquals(SC_OK, headResponse.getStatusCode());
+            assertEquals("41", headResponse.getHeaders().getFirst("X-RateLimit-Remaining"));
+
+            final RestCallResponseException e = assertThrows(RestCallResponseException.class,
+                () -> restClientService.executeHeaders(RestClientRequest.create(HttpHead.METHOD_NAME).path("/get/user/unknown").build()));
+            assertEquals(SC_NOT_FOUND, e.getStatusCode());
+        }
+    }
+
+    @Test
+    void streamedElementsAreReadOneByOne() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/export/array"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, CT_JSON)
+                .withBody("[{\"value\":\"one\"},{\"value\":\"two\"},{\"value\":\"three\"}]")));
+        wireMock.stubFor(get(urlEqualTo("/export/ndjson"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, "application/x-ndjson")
+                .withBody("{\"value\":\"one\"}\n{\"value\":\"two\"}\n")));
+        try (final RestClientService restClientService = new RestClientService("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort(), -1)) {
+            try (final RestClientStreamingResponse<TestClass> response =
+                     restClientService.executeStream(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/export/array").build())) {
+                assertEquals(SC_OK, response.getStatusCode());
+                assertEquals(List.of("one", "two", "three"), response.stream().map(TestClass::getValue).collect(Collectors.toList()));
+            }
+            try (final RestClientStreamingResponse<TestClass> response =
+                     restClientService.executeStream(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/export/ndjson").build())) {
+                assertEquals("one", response.next().getValue());
+                assertEquals("two", response.next().getValue());
+                assertFalse(response.hasNext());
+            }
+        }
+    }
+
+    @Test
+    void rateLimitRejectsBurstsThatDoNotFitWithinMaxWait() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/api/limited"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withBody("success")));
+        final AtomicLong nanoTime = new AtomicLong();
+        try (final RestClientService restClientService = createWithClock(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+            .routeRateLimit("/api/limited", 0.1)
+            .rateLimitBurst(2)
+            .build(), nanoTime)) {
+            final RestClientRequest<String> request = RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("api/limited").build();
+
+            assertEquals("success", restClientService.execute(request).getValue());
+            assertEquals("success", restClientService.execute(request).getValue());
+            final RestCallRateLimitException e = assertThrows(RestCallRateLimitException.class, () -> restClientService.execute(request));
+            assertEquals("The client side rate limit was exceeded for URL http://localhost:" + wireMock.getRuntimeInfo().getHttpPort() + "/api/limited",
+                e.getMessage());
+            nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(9));
+            assertThrows(RestCallRateLimitException.class, () -> restClientService.execute(request));
+            nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            assertEquals("success", restClientService.execute(request).getValue());
+        }
+    }
+
+    @Test
+    void routeRateLimitsMatchWholeSegmentsAndReturnUnusedPermits() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/api/limited"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withBody("success")));
+        wireMock.stubFor(get(urlEqualTo("/api/limitedv2"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withBody("success")));
+        final AtomicLong nanoTime = new AtomicLong();
+        try (final RestClientService restClientService = createWithClock(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+            .rateLimit(0.5)
+            .routeRateLimit("/api/limited", 0.1)
+            .build(), nanoTime)) {
+            final RestClientRequest<String> limited = RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/api/limited").build();
+            final RestClientRequest<String> other = RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/api/limitedv2").build();
+
+            // Only the service limit applies to the other path, which uses up its only permit
+            assertEquals("success", restClientService.execute(other).getValue());
+            // Rejected by the service limit, the permit of the route is handed back
+            assertThrows(RestCallRateLimitException.class, () -> restClientService.execute(limited));
+            nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(2));
+            assertEquals("success", restClientService.execute(limited).getValue());
+            assertThrows(RestCallRateLimitException.class, () -> restClientService.execute(limited));
+        }
+    }
+
+    @Test
+    void responseBodyBuffersAreReused() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/get/user/id"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, CT_JSON)
+                .withBody("{\"value\":\"success\"}")));
+        try (final RestClientService restClientService = new RestClientService("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort(), -1)) {
+            for (int i = 0; i < 3; i++) {
+                final RestClientResponse<TestClass> response =
+                    restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/get/user/id").build());
+                assertEquals("success", response.getValue().getValue());
+            }
+            final ByteBufferPoolMetrics metrics = restClientService.getBufferPoolMetrics();
+            assertEquals(3, metrics.getAcquired());
+            assertEquals(1, metrics.getAllocated());
+            assertEquals(2, metrics.getReused());
+        }
+    }
+
+    @Test
+    void registeredBackendsShareTheResponseBodyBuffers() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/get/user/id"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, CT_JSON)
+                .withBody("{\"value\":\"success\"}")));
+        final String baseUrl = "http://localhost:" + wireMock.getRuntimeInfo().getHttpPort();
+
+        try (final RestClientRegistry registry = new RestClientRegistry(RestClientRegistryConfiguration.create().build())) {
+            final RestClientService first = registry.register("first", RestClientServiceConfiguration.create(baseUrl).build());
+            final RestClientService second = registry.register("second", RestClientServiceConfiguration.create(baseUrl).build());
+            first.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/get/user/id").build());
+            second.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/get/user/id").build());
+
+            final ByteBufferPoolMetrics metrics = second.getBufferPoolMetrics();
+            assertEquals(2, metrics.getAcquired());
+            assertEquals(1, metrics.getAllocated());
+            assertEquals(1, metrics.getReused());
+        }
+    }
+
+    @Test
+    void staleCachedResponseIsServedWhenBackendFails(@TempDir final Path tempDir) throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/tax/tables"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, CT_JSON)
+                .withHeader("X-Table-Version", "2024")
+                .withBody("{\"value\":\"cached\"}")));
+        final String baseUrl = "http://localhost:" + wireMock.getRuntimeInfo().getHttpPort();
+        final RestClientRequest<TestClass> request = RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/tax/tables").cacheable(true).build();
+
+        try (final ResponseCache cache = new ResponseCache(10, new MappedFileResponseStore(tempDir.resolve("responses.cache"), 1024 * 1024))) {
+            try (final RestClientService restClientService =
+                     new RestClientService(RestClientServiceConfiguration.create(baseUrl).responseCache(cache).responseCacheTtl(60000).build())) {
+                assertEquals("cached", restClientService.execute(request).getValue().getValue());
+                final RestClientResponse<TestClass> fresh = restClientService.execute(request);
+                assertEquals("cached", fresh.getValue().getValue());
+                assertEquals("2024", fresh.getHeaders().getFirst("X-Table-Version"));
+                wireMock.verify(1, getRequestedFor(urlEqualTo("/tax/tables")));
+            }
+        }
+
+        wireMock.stubFor(get(urlEqualTo("/tax/tables"))
+            .willReturn(aResponse()
+                .withStatus(SC_INTERNAL_SERVER_ERROR)
+                .withBody("BOOM")));
+        try (final ResponseCache cache = new ResponseCache(10,
+            new MappedFileResponseStore(tempDir.resolve("responses.cache"), 1024 * 1024).loadInBackground())) {
+            try (final RestClientService restClientService =
+                     new RestClientService(RestClientServiceConfiguration.create(baseUrl).responseCache(cache).responseCacheTtl(0).build())) {
+                final RestClientResponse<TestClass> stale = restClientService.execute(request);
+                assertEquals("cached", stale.getValue().getValue());
+                assertEquals("2024", stale.getHeaders().getFirst("X-Table-Version"));
+
+                // A response that was received but can't be converted is not a failure of the backend
+                wireMock.stubFor(get(urlEqualTo("/tax/tables"))
+                    .willReturn(aResponse()
+                        .withStatus(SC_OK)
+                        .withHeader(CONTENT_TYPE, CT_JSON)
+                        .withBody("not json")));
+                assertThrows(RestCallConversionException.class, () -> restClientService.execute(request));
+            }
+        }
+    }
+
+    @Test
+    void reactiveElementsAreOnlyReadOnDemand() throws Exception {
+        wireMock.stubFor(get(urlEqualTo("/export/array"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, CT_JSON)
+                .withBody("[{\"value\":\"one\"},{\"value\":\"two\"},{\"value\":\"three\"}]")));
+        final ReactiveRestClientService restClientService = new ReactiveRestClientService(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort()).build());
+        final List<String> values = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        restClientService.publishElements(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/export/array").build())
+            .subscribe(new Flow.Subscriber<TestClass>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(final TestClass item) {
+                    values.add(item.getValue());
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    completed.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.complete(null);
+                }
+            });
+
+        completed.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("one", "two", "three"), values);
+    }
+
+    @Test
+    void reactiveRequestsThatCannotBeBuiltAreSignalled() throws Exception {
+        final ReactiveRestClientService restClientService = new ReactiveRestClientService(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort()).build());
+        // The JDK client refuses to set restricted headers
+        final RestClientRequest<TestClass> request = RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class)
+            .path("/get/user/id")
+            .header("Connection", "close")
+            .build();
+
+        assertThat(awaitError(restClientService.publish(request)), instanceOf(IllegalArgumentException.class));
+        assertThat(awaitError(restClientService.publishElements(request)), instanceOf(IllegalArgumentException.class));
+    }
+
+    @Test
+    void cancellingReactiveElementsReleasesTheConnection() throws Exception {
+        final String body = "[" + Collections.nCopies(100, "{\"value\":\"element\"}").stream().collect(Collectors.joining(",")) + "]";
+        try (final FaultInjectingStub stub = new FaultInjectingStub(StubBehaviour.builder()
+            .latency(LatencyDistribution.fixed(300))
+            .slowDripRate(1)
+            .slowDripDelay(20)
+            .body(body)
+            .build())) {
+            final ReactiveRestClientService restClientService =
+                new ReactiveRestClientService(RestClientServiceConfiguration.create(stub.getBaseUrl()).build());
+            final CompletableFuture<Flow.Subscription> subscribed = new CompletableFuture<>();
+            restClientService.publishElements(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/export/array").build())
+                .subscribe(new Flow.Subscriber<TestClass>() {
+                    @Override
+                    public void onSubscribe(final Flow.Subscription subscription) {
+                        subscription.request(1);
+                        subscribed.complete(subscription);
+                    }
+
+                    @Override
+                    public void onNext(final TestClass item) {
+                    }
+
+                    @Override
+                    public void onError(final Throwable throwable) {
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                });
+            awaitOpenConnections(stub, 1);
+
+            // Cancelled while the stub has not sent the response headers yet
+            subscribed.get(5, TimeUnit.SECONDS).cancel();
+            awaitOpenConnections(stub, 0);
+        }
+    }
+
+    private static void awaitOpenConnections(@NotNull final FaultInjectingStub stub, final int expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (stub.getOpenConnections() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, stub.getOpenConnections());
+    }
+
+    /**
+     * Creates a service whose rate limiters take the time from the given clock, so tests can move time forward instead of sleeping
+     */
+    @NotNull
+    private static RestClientService createWithClock(@NotNull final RestClientServiceConfiguration configuration, @NotNull final AtomicLong nanoTime)
+        throws IOException {
+        return new RestClientService(configuration, new PooledTransport(0, 0, configuration.getDnsCacheTtl(), new ByteBufferPool(
+            configuration.getBufferPoolMaxBufferSize(), configuration.getBufferPoolMaxPooledBytes(), configuration.isBufferPoolDirect())), true, nanoTime::get);
+    }
+
+    @NotNull
+    private static Throwable awaitError(@NotNull final Flow.Publisher<?> publisher) throws Exception {
+        final CompletableFuture<Throwable> error = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<Object>() {
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(final Object item) {
+                error.completeExceptionally(new AssertionError("Unexpected element " + item));
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                error.complete(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                error.completeExceptionally(new AssertionError("Unexpected completion"));
+            }
+        });
+        return error.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void reactiveErrorResponsesAreSignalled() {
+        wireMock.stubFor(get(urlEqualTo("/get/user/unknown"))
+            .willReturn(aResponse()
+                .withStatus(SC_NOT_FOUND)
+                .withBody("Not found")));
+        final ReactiveRestClientService restClientService = new ReactiveRestClientService(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort()).build());
+        final CompletableFuture<RestClientResponse<String>> response = new CompletableFuture<>();
+
+        restClientService.publish(RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/get/user/unknown").build())
+            .subscribe(new Flow.Subscriber<RestClientResponse<String>>() {
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription) {
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(final RestClientResponse<String> item) {
+                    response.complete(item);
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    response.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> response.get(5, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(RestCallResponseException.class));
+        assertEquals(SC_NOT_FOUND, ((RestCallResponseException) e.getCause()).getStatusCode());
+    }
+
+    @Test
+    void binaryFormatsAreNegotiatedAndConverted() throws IOException {
+        final TestClass value = new TestClass();
+        value.setValue("binary");
+        wireMock.stubFor(get(urlEqualTo("/get/user/cbor"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, "application/cbor")
+                .withBody(new CBORMapper().writeValueAsBytes(value))));
+        wireMock.stubFor(get(urlEqualTo("/get/user/protobuf"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, "application/x-protobuf")
+                .withBody("proto".getBytes(StandardCharsets.UTF_8))));
+        try (final RestClientService restClientService = new RestClientService(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+            .binaryFormatNegotiation(true)
+            .build())) {
+            assertEquals("binary",
+                restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/get/user/cbor").build()).getValue().getValue());
+            assertEquals("proto",
+                restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestMessage.class).path("/get/user/protobuf").build()).getValue()
+                    .getValue());
+            wireMock.verify(getRequestedFor(urlEqualTo("/get/user/cbor"))
+                .withHeader("Accept", equalTo("application/cbor, application/x-jackson-smile;q=0.9, application/json;q=0.8")));
+            wireMock.verify(getRequestedFor(urlEqualTo("/get/user/protobuf"))
+                .withHeader("Accept", equalTo("application/x-protobuf, application/json;q=0.8")));
+        }
+    }
+
+    @Test
+    void xmlTypesAreLeftToTheBackendWhenNegotiatingFormats() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/get/user/xml"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, "text/xml")
+                .withBody("<testXmlClass><value>xml</value></testXmlClass>")));
+        try (final RestClientService restClientService = new RestClientService(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+            .binaryFormatNegotiation(true)
+            .build())) {
+            assertEquals("xml",
+                restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestXmlClass.class).path("/get/user/xml").build()).getValue()
+                    .getValue());
+            wireMock.verify(getRequestedFor(urlEqualTo("/get/user/xml")).withoutHeader("Accept"));
+        }
+    }
+
+    @Test
+    void reconfiguringARegisteredBackendCompletesExecutingRequests() throws Exception {
+        wireMock.stubFor(get(urlEqualTo("/api/slow"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withFixedDelay(500)
+                .withBody("slow")));
+        final String baseUrl = "http://localhost:" + wireMock.getRuntimeInfo().getHttpPort();
+        final RestClientRequest<String> request = RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/api/slow").build();
+
+        try (final RestClientRegistry registry = new RestClientRegistry(RestClientRegistryConfiguration.create().build())) {
+            final RestClientService original = registry.register("backend", RestClientServiceConfiguration.create(baseUrl).build());
+            final CompletableFuture<String> executing = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return original.execute(request).getValue();
+                } catch (final RestCallException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            Thread.sleep(100);
+
+            final RestClientService reconfigured = registry.register("backend", RestClientServiceConfiguration.create(baseUrl).timeout(2000).build());
+            assertThrows(RestCallException.class, () -> original.execute(request));
+            assertEquals("slow", reconfigured.execute(request).getValue());
+            assertEquals("slow", executing.get(5, TimeUnit.SECONDS));
+            assertEquals(reconfigured, registry.get("backend"));
+        }
+    }
+
+    @Test
+    void reconfiguringABackendWithoutConnectionLimitRestoresTheDefaultLimit() throws IOException {
+        final int port = wireMock.getRuntimeInfo().getHttpPort();
+        final HttpRoute route = new HttpRoute(new HttpHost("localhost", port, "http"));
+
+        try (final RestClientRegistry registry = new RestClientRegistry(RestClientRegistryConfiguration.create().maxConnectionsPerRoute(20).build())) {
+            registry.register("backend", RestClientServiceConfiguration.create("http://localhost:" + port).maxConnections(2).build());
+            assertEquals(2, registry.getTransport().getConnectionManager().getMaxPerRoute(route));
+
+            registry.register("backend", RestClientServiceConfiguration.create("http://localhost:" + port).build());
+            assertEquals(20, registry.getTransport().getConnectionManager().getMaxPerRoute(route));
+        }
+    }
+
+    @Test
+    void requestsWhoseDeadlinePassesWhileWaitingForASlotAreDropped() throws Exception {
+        wireMock.stubFor(get(urlEqualTo("/api/slow"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withFixedDelay(500)
+                .withBody("slow")));
+        try (final RestClientService restClientService = new RestClientService(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+            .maxConcurrentRequests(1)
+            .build())) {
+            final CompletableFuture<String> executing = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/api/slow")
+                        .priority(RestClientPriority.BACKGROUND).build()).getValue();
+                } catch (final RestCallException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            Thread.sleep(100);
+
+            assertThrows(RestCallDeadlineExceededException.class, () -> restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, String.class)
+                .path("/api/slow").priority(RestClientPriority.INTERACTIVE).deadline(System.currentTimeMillis() + 100).build()));
+            assertThrows(RestCallDeadlineExceededException.class, () -> restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, String.class)
+                .path("/api/slow").deadline(System.currentTimeMillis() - 1).build()));
+            assertEquals("slow", executing.get(5, TimeUnit.SECONDS));
+            wireMock.verify(1, getRequestedFor(urlEqualTo("/api/slow")));
+        }
+    }
+
+    @Test
+    void repeatedBodiesOfImmutableTypesShareTheConvertedInstance() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/config/navigation"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, CT_JSON)
+                .withBody("{\"value\":\"navigation\"}")));
+        final ConversionMemoizer memoizer = new ConversionMemoizer(10, MemoizedValueStrength.SOFT);
+        try (final RestClientService restClientService = new RestClientService(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+            .conversionMemoizer(memoizer)
+            .build())) {
+            final TestImmutableClass first = restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestImmutableClass.class)
+                .path("/config/navigation").build()).getValue();
+            final TestImmutableClass second = restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestImmutableClass.class)
+                .path("/config/navigation").build()).getValue();
+            final TestClass mutable = restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class)
+                .path("/config/navigation").build()).getValue();
+
+            assertEquals("navigation", first.getValue());
+            assertSame(first, second);
+            assertEquals("navigation", mutable.getValue());
+            assertEquals(1, memoizer.getHits());
+            assertEquals(1, memoizer.getMisses());
+        }
+    }
+
+    @Test
+    void tracedCallsPropagateTheTraceContextAndExportTheirSpans() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/get/user/id"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, CT_JSON)
+                .withBody("{\"value\":\"success\"}")));
+        final InMemorySpanExporter exporter = new InMemorySpanExporter();
+        final String parent = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+        try (final RestClientTracer tracer = new RestClientTracer(exporter);
+             final RestClientService restClientService = new RestClientService(RestClientServiceConfiguration
+                 .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+                 .tracer(tracer)
+                 .build())) {
+            restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/get/user/id")
+                .attribute(RestClientTracer.PARENT_ATTRIBUTE, parent).build());
+            tracer.flush();
+        }
+
+        final List<ClientSpan> spans = exporter.getSpans();
+        assertEquals(1, spans.size());
+        final ClientSpan span = spans.get(0);
+        assertEquals("0af7651916cd43dd8448eb211c80319c", span.getTraceId());
+        assertEquals("b7ad6b7169203331", span.getParentSpanId());
+        assertEquals(SC_OK, span.getStatusCode());
+        assertThat(span.getServerWaitNanos() > 0, is(true));
+        assertThat(span.getConnectNanos() > 0, is(true));
+        assertThat(span.getConversionNanos() > 0, is(true));
+        wireMock.verify(getRequestedFor(urlEqualTo("/get/user/id"))
+            .withHeader("traceparent", equalTo("00-0af7651916cd43dd8448eb211c80319c-" + span.getSpanId() + "-01")));
+    }
+
+    @Test
+    void failedCallsEndTheirSpansAsFailed() throws IOException {
+        wireMock.stubFor(get(urlEqualTo("/get/user/id"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withHeader(CONTENT_TYPE, CT_JSON)
+                .withBody("not json")));
+        final InMemorySpanExporter exporter = new InMemorySpanExporter();
+        final RestClientRequest<TestClass> request = RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/get/user/id").build();
+
+        try (final RestClientTracer tracer = new RestClientTracer(exporter);
+             final RestClientService restClientService = new RestClientService(RestClientServiceConfiguration
+                 .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+                 .tracer(tracer)
+                 .rateLimit(0.001)
+                 .rateLimitBurst(1)
+                 .build())) {
+            assertThrows(RestCallConversionException.class, () -> restClientService.execute(request));
+            // Rejected before it is sent
+            assertThrows(RestCallRateLimitException.class, () -> restClientService.execute(request));
+            tracer.flush();
+        }
+
+        final List<ClientSpan> spans = exporter.getSpans();
+        assertEquals(2, spans.size());
+        assertThat(spans.get(0).getError(), startsWith(RestCallConversionException.class.getName()));
+        assertEquals(SC_OK, spans.get(0).getStatusCode());
+        assertThat(spans.get(1).getError(), startsWith(RestCallRateLimitException.class.getName()));
+    }
+
+    @Test
+    void requestsThatFailBeforeBeingSentDoNotDelayClosing() throws IOException {
+        final RestClientService restClientService = new RestClientService(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+            .closeGracePeriod(5000)
+            .build());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/a b").build()));
+        assertThrows(IllegalArgumentException.class,
+            () -> restClientService.executeHeaders(RestClientRequest.create(HttpHead.METHOD_NAME).path("/a b").build()));
+        assertThrows(IllegalArgumentException.class,
+            () -> restClientService.executeStream(RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/a b").build()));
+
+        final long start = System.nanoTime();
+        restClientService.close();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, is(true));
+    }
+
+    @Test
+    void slowlyDrippedBodyIsAbortedAtTheTimeout() throws Exception {
+        // Every byte arrives well within the socket timeout, only the deadline bounds the whole response
+        try (final FaultInjectingStub stub = new FaultInjectingStub(StubBehaviour.builder().slowDripRate(1).slowDripDelay(50).build());
+             final RestClientService restClientService = new RestClientService(stub.getBaseUrl(), 300)) {
+            final long start = System.nanoTime();
+            assertThrows(RestCallTimeoutException.class,
+                () -> restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, TestClass.class).path("/drip").build()));
+            final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat("elapsed " + elapsed, elapsed >= 300 && elapsed < 600, is(true));
+        }
+    }
+
+    @Test
+    void waitingForASlotUsesUpTheTimeout() throws Exception {
+        wireMock.stubFor(get(urlEqualTo("/api/fast"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withBody("fast")));
+        wireMock.stubFor(get(urlEqualTo("/api/values"))
+            .willReturn(aResponse()
+                .withStatus(SC_OK)
+                .withBody("[\"one\"]")));
+        try (final RestClientService restClientService = new RestClientService(RestClientServiceConfiguration
+            .create("http://localhost:" + wireMock.getRuntimeInfo().getHttpPort())
+            .timeout(2000)
+            .maxConcurrentRequests(1)
+            .build())) {
+            // A request that fails before it is sent must hand back its slot
+            assertThrows(IllegalArgumentException.class,
+                () -> restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/a b").build()));
+            assertEquals("fast", restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/api/fast").build()).getValue());
+
+            // An open streaming response holds the only slot until it is closed
+            try (final RestClientStreamingResponse<String> occupying =
+                     restClientService.executeStream(RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/api/values").build())) {
+                assertEquals(SC_OK, occupying.getStatusCode());
+                final long start = System.nanoTime();
+                assertThrows(RestCallTimeoutException.class,
+                    () -> restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/api/fast").build()));
+                final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                assertThat("elapsed " + elapsed, elapsed >= 1900 && elapsed < 2500, is(true));
+            }
+            assertEquals("fast", restClientService.execute(RestClientRequest.create(HttpGet.METHOD_NAME, String.class).path("/api/fast").build()).getValue());
+        }
+    }
+
     @Setter
     @Getter
     public static class TestClass {
         private String value;
     }
+
+    @Setter
+    @Getter
+    @ImmutableResponse
+    public static class TestImmutableClass {
+        private String value;
+    }
+
+    @Setter
+    @Getter
+    @XmlRootElement
+    public static class TestXmlClass {
+        private String value;
+    }
+
+    /**
+     * Mimics a generated Protobuf message type
+     */
+    @Getter
+    public static class TestMessage {
+        private final String value;
+
+        private TestMessage(final String value) {
+            this.value = value;
+        }
+
+        public static TestMessage parseFrom(final byte[] data) {
+            return new TestMessage(new String(data, StandardCharsets.UTF_8));
+        }
+    }
 }
@@ -0,0 +1,105 @@
+package nl.something.client.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import lombok.Getter;
+import lombok.Setter;
+import nl.something.client.response.converter.ResponseBody;
+import nl.something.client.response.converter.ResponseConverterFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares converting the same payload from JSON, CBOR and Smile through the converter pipeline. Run it with {@code main}, or through the JMH runner of
+ * the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseConverterBenchmark {
+    @Param({"10", "1000"})
+    private int items;
+
+    private byte[] json;
+    private byte[] cbor;
+    private byte[] smile;
+
+    @Setup
+    public void setUp() throws IOException {
+        final Payload payload = new Payload();
+        for (int i = 0; i < items; i++) {
+            final Item item = new Item();
+            item.setId(i);
+            item.setName("item-" + i);
+            item.setPrice(i * 1.25);
+            item.setTags(List.of("tax", "income", "year-" + i % 10));
+            payload.getItems().add(item);
+        }
+        json = new ObjectMapper().writeValueAsBytes(payload);
+        cbor = new CBORMapper().writeValueAsBytes(payload);
+        smile = new SmileMapper().writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public Payload json() throws IOException {
+        return convert(json, "application/json; charset=UTF-8");
+    }
+
+    @Benchmark
+    public Payload cbor() throws IOException {
+        return convert(cbor, "application/cbor");
+    }
+
+    @Benchmark
+    public Payload smile() throws IOException {
+        return convert(smile, "application/x-jackson-smile");
+    }
+
+    private static Payload convert(final byte[] body, final String contentType) throws IOException {
+        try (final ResponseBody responseBody = new ResponseBody(ByteBuffer.wrap(body), StandardCharsets.UTF_8, null)) {
+            return ResponseConverterFactory.convert(responseBody, contentType, Payload.class);
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResponseConverterBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setter
+    @Getter
+    public static class Payload {
+        private List<Item> items = new ArrayList<>();
+    }
+
+    @Setter
+    @Getter
+    public static class Item {
+        private long id;
+        private String name;
+        private double price;
+        private List<String> tags;
+    }
+}
@@ -0,0 +1,171 @@
+package nl.something.client.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process HTTP/1.1 server that answers every request according to a {@link StubBehaviour}. Unlike WireMock it works directly on the socket,
+ * which allows resetting connections and dripping bodies, and it serves every connection from its own thread so latency is not distorted by the stub.
+ */
+@Slf4j
+public class FaultInjectingStub implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private volatile StubBehaviour behaviour;
+
+    public FaultInjectingStub(@NotNull final StubBehaviour behaviour) throws IOException {
+        this.behaviour = behaviour;
+        this.serverSocket = new ServerSocket(0, 512, InetAddress.getLoopbackAddress());
+        executor.execute(this::accept);
+    }
+
+    @NotNull
+    public String getBaseUrl() {
+        return "http://localhost:" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return The number of connections the stub is serving, connections are only counted as closed once the stub noticed
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public void setBehaviour(@NotNull final StubBehaviour behaviour) {
+        this.behaviour = behaviour;
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                executor.execute(() -> serve(socket));
+            } catch (final IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Failed to accept connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(@NotNull final Socket socket) {
+        openConnections.incrementAndGet();
+        try (socket) {
+            final InputStream in = new BufferedInputStream(socket.getInputStream());
+            final OutputStream out = socket.getOutputStream();
+            while (readRequest(in)) {
+                if (!respond(socket, out)) {
+                    return;
+                }
+            }
+        } catch (final SocketException e) {
+            // The client gave up on the connection, e.g. because of a timeout
+        } catch (final IOException | InterruptedException e) {
+            log.debug("Failed to serve connection", e);
+        } finally {
+            openConnections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Reads the request head and skips the body
+     *
+     * @return Whether a request was read, false if the client closed the connection
+     */
+    private static boolean readRequest(@NotNull final InputStream in) throws IOException {
+        final StringBuilder head = new StringBuilder();
+        int newLines = 0;
+        while (newLines < 2) {
+            final int b = in.read();
+            if (b < 0) {
+                return false;
+            }
+            head.append((char) b);
+            if (b == '\n') {
+                newLines++;
+            } else if (b != '\r') {
+                newLines = 0;
+            }
+        }
+        for (final String line : head.toString().split("\r\n")) {
+            if (line.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                skip(in, Long.parseLong(line.substring("content-length:".length()).trim()));
+            }
+        }
+        return true;
+    }
+
+    private static void skip(@NotNull final InputStream in, final long length) throws IOException {
+        for (long i = 0; i < length; i++) {
+            if (in.read() < 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Whether the connection can be used for another request
+     */
+    private boolean respond(@NotNull final Socket socket, @NotNull final OutputStream out) throws IOException, InterruptedException {
+        final StubBehaviour current = behaviour;
+        final Random random = ThreadLocalRandom.current();
+        final long latency = current.getLatency().sampleMillis(random);
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+        if (random.nextDouble() < current.getResetRate()) {
+            socket.setSoLinger(true, 0);
+            return false;
+        }
+        if (random.nextDouble() < current.getErrorRate()) {
+            write(out, 500, "Server Error", "{\"error\":\"injected\"}".getBytes(StandardCharsets.UTF_8), 0);
+            return true;
+        }
+        final long dripDelay = random.nextDouble() < current.getSlowDripRate() ? current.getSlowDripDelay() : 0;
+        write(out, 200, "OK", current.getBody().getBytes(StandardCharsets.UTF_8), dripDelay);
+        return true;
+    }
+
+    private static void write(@NotNull final OutputStream out, final int status, @NotNull final String reason, final byte[] body, final long dripDelay)
+        throws IOException, InterruptedException {
+        final String head = "HTTP/1.1 " + status + " " + reason + "\r\n"
+            + "Content-Type: application/json\r\n"
+            + "Content-Length: " + body.length + "\r\n"
+            + "\r\n";
+        out.write(head.getBytes(StandardCharsets.US_ASCII));
+        if (dripDelay <= 0) {
+            out.write(body);
+            out.flush();
+            return;
+        }
+        out.flush();
+        for (final byte b : body) {
+            Thread.sleep(dripDelay);
+            out.write(b);
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+}
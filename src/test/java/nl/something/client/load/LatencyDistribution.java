@@ -0,0 +1,31 @@
+package nl.something.client.load;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * Distribution the fault injecting stub samples its response latency from
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+    long sampleMillis(@NotNull final Random random);
+
+    static LatencyDistribution fixed(final long millis) {
+        return random -> millis;
+    }
+
+    static LatencyDistribution uniform(final long minMillis, final long maxMillis) {
+        return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+    }
+
+    /**
+     * A long-tailed distribution, as is typical for real backends
+     *
+     * @param medianMillis The median latency
+     * @param sigma The standard deviation of the underlying normal distribution, larger values give a longer tail
+     */
+    static LatencyDistribution logNormal(final long medianMillis, final double sigma) {
+        return random -> (long) (medianMillis * Math.exp(sigma * random.nextGaussian()));
+    }
+}
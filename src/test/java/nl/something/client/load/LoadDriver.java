@@ -0,0 +1,105 @@
+package nl.something.client.load;
+
+import nl.something.client.RestClientRequest;
+import nl.something.client.RestClientService;
+import nl.something.exceptions.RestCallException;
+import nl.something.exceptions.RestCallTimeoutException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs a {@link RestClientService} at a number of concurrent callers, each executing a fixed number of requests back to back.
+ */
+public class LoadDriver {
+    private final RestClientService service;
+    private final Supplier<RestClientRequest<?>> requests;
+    private final long configuredTimeoutNanos;
+
+    /**
+     * @param service The service under test
+     * @param requests Supplies the request for every call
+     * @param configuredTimeout The timeout in milliseconds the service was configured with, used to determine how late timeouts fire
+     */
+    public LoadDriver(@NotNull final RestClientService service, @NotNull final Supplier<RestClientRequest<?>> requests, final long configuredTimeout) {
+        this.service = service;
+        this.requests = requests;
+        this.configuredTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(configuredTimeout);
+    }
+
+    @NotNull
+    public LoadReport run(final int callers, final int requestsPerCaller) throws InterruptedException {
+        final Caller[] threads = new Caller[callers];
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < callers; i++) {
+            threads[i] = new Caller(requestsPerCaller, start);
+            threads[i].start();
+        }
+        final long startTime = System.nanoTime();
+        start.countDown();
+        for (final Caller thread : threads) {
+            thread.join();
+        }
+        final long duration = System.nanoTime() - startTime;
+
+        int successes = 0;
+        int errors = 0;
+        long[] latencies = new long[0];
+        long[] timeoutLateness = new long[0];
+        for (final Caller thread : threads) {
+            successes += thread.successes;
+            errors += thread.errors;
+            latencies = concat(latencies, thread.latencies, thread.calls);
+            timeoutLateness = concat(timeoutLateness, thread.timeoutLateness, thread.timeouts);
+        }
+        return new LoadReport(successes, errors, latencies, timeoutLateness, duration);
+    }
+
+    @NotNull
+    private static long[] concat(@NotNull final long[] first, @NotNull final long[] second, final int secondLength) {
+        final long[] result = Arrays.copyOf(first, first.length + secondLength);
+        System.arraycopy(second, 0, result, first.length, secondLength);
+        return result;
+    }
+
+    private final class Caller extends Thread {
+        private final CountDownLatch start;
+        private final long[] latencies;
+        private final long[] timeoutLateness;
+        private int calls;
+        private int successes;
+        private int timeouts;
+        private int errors;
+
+        private Caller(final int requests, @NotNull final CountDownLatch start) {
+            super("load-driver-caller");
+            this.start = start;
+            this.latencies = new long[requests];
+            this.timeoutLateness = new long[requests];
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (final InterruptedException e) {
+                return;
+            }
+            while (calls < latencies.length) {
+                final long startTime = System.nanoTime();
+                try {
+                    service.execute(requests.get());
+                    successes++;
+                } catch (final RestCallTimeoutException e) {
+                    timeoutLateness[timeouts++] = System.nanoTime() - startTime - configuredTimeoutNanos;
+                } catch (final RestCallException e) {
+                    errors++;
+                }
+                latencies[calls++] = System.nanoTime() - startTime;
+            }
+        }
+    }
+}
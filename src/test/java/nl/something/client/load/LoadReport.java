@@ -0,0 +1,75 @@
+package nl.something.client.load;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a load run. Latencies cover all calls, timeout lateness is how much later than the configured timeout a timeout exception was thrown.
+ */
+@Getter
+public class LoadReport {
+    private final int calls;
+    private final int successes;
+    private final int timeouts;
+    private final int errors;
+    private final long durationNanos;
+    @Getter(lombok.AccessLevel.NONE)
+    private final long[] latencies;
+    @Getter(lombok.AccessLevel.NONE)
+    private final long[] timeoutLateness;
+
+    LoadReport(final int successes, final int errors, @NotNull final long[] latencies, @NotNull final long[] timeoutLateness, final long durationNanos) {
+        this.successes = successes;
+        this.timeouts = timeoutLateness.length;
+        this.errors = errors;
+        this.calls = successes + timeouts + errors;
+        this.durationNanos = durationNanos;
+        this.latencies = latencies.clone();
+        this.timeoutLateness = timeoutLateness.clone();
+        Arrays.sort(this.latencies);
+        Arrays.sort(this.timeoutLateness);
+    }
+
+    /**
+     * @return The number of calls completed per second
+     */
+    public double getThroughput() {
+        return calls / (durationNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * @param percentile The percentile between 0 and 100
+     * @return The latency of all calls at the given percentile in milliseconds
+     */
+    public double getLatencyPercentile(final double percentile) {
+        return percentile(latencies, percentile);
+    }
+
+    /**
+     * @param percentile The percentile between 0 and 100
+     * @return How many milliseconds after the configured timeout the timeout exception was thrown, at the given percentile
+     */
+    public double getTimeoutLatenessPercentile(final double percentile) {
+        return percentile(timeoutLateness, percentile);
+    }
+
+    private static double percentile(@NotNull final long[] sortedNanos, final double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(percentile / 100 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(sortedNanos.length - 1, index))] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("calls=%d successes=%d timeouts=%d errors=%d throughput=%.1f/s latency p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms "
+                + "timeout lateness p50=%.1fms p99=%.1fms max=%.1fms",
+            calls, successes, timeouts, errors, getThroughput(),
+            getLatencyPercentile(50), getLatencyPercentile(90), getLatencyPercentile(99), getLatencyPercentile(100),
+            getTimeoutLatenessPercentile(50), getTimeoutLatenessPercentile(99), getTimeoutLatenessPercentile(100));
+    }
+}
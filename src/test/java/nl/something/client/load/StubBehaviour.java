@@ -0,0 +1,42 @@
+package nl.something.client.load;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * What the fault injecting stub does for every request. The rates are independent fractions between 0 and 1, checked in the order reset, error, slow drip.
+ */
+@Value
+@Builder
+public class StubBehaviour {
+    /**
+     * The latency before the stub starts responding
+     */
+    @Builder.Default
+    LatencyDistribution latency = LatencyDistribution.fixed(0);
+    /**
+     * The fraction of requests for which the connection is reset instead of responded to
+     */
+    @Builder.Default
+    double resetRate = 0;
+    /**
+     * The fraction of requests that get a 500 response
+     */
+    @Builder.Default
+    double errorRate = 0;
+    /**
+     * The fraction of requests of which the body is sent one byte at a time
+     */
+    @Builder.Default
+    double slowDripRate = 0;
+    /**
+     * The delay in milliseconds between the bytes of a slowly dripped body
+     */
+    @Builder.Default
+    long slowDripDelay = 10;
+    /**
+     * The JSON body of a successful response
+     */
+    @Builder.Default
+    String body = "{\"value\":\"success\"}";
+}
@@ -0,0 +1,43 @@
+package nl.something.client.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void waitIsReservedOnlyWithinTheMaximumWait() {
+        final AtomicLong nanoTime = new AtomicLong();
+        final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 2, nanoTime::get);
+
+        assertEquals(0, limiter.reserve(0));
+        assertEquals(0, limiter.reserve(0));
+        assertEquals(-1, limiter.reserve(0));
+        assertEquals(SECOND, limiter.reserve(SECOND));
+        assertEquals(-1, limiter.reserve(SECOND));
+
+        nanoTime.addAndGet(SECOND / 2);
+        assertEquals(SECOND + SECOND / 2, limiter.reserve(2 * SECOND));
+    }
+
+    @Test
+    void releasedPermitsNeverExceedTheBurst() {
+        final AtomicLong nanoTime = new AtomicLong();
+        final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, nanoTime::get);
+
+        assertEquals(0, limiter.reserve(0));
+        limiter.release();
+        assertEquals(0, limiter.reserve(0));
+
+        nanoTime.addAndGet(10 * SECOND);
+        limiter.release();
+        assertEquals(0, limiter.reserve(0));
+        assertEquals(-1, limiter.reserve(0));
+    }
+}
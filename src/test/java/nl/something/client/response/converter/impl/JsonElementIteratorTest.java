@@ -0,0 +1,44 @@
+package nl.something.client.response.converter.impl;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonElementIteratorTest {
+
+    @Test
+    void elementIsReturnedWithoutWaitingForTheNextOne() throws IOException {
+        // The connection breaks right after the first element
+        final InputStream content = new SequenceInputStream(new ByteArrayInputStream("[{\"value\":\"one\"}".getBytes(StandardCharsets.UTF_8)),
+            new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    throw new IOException("Connection reset");
+                }
+            });
+
+        try (final JsonElementIterator<Element> elements = new JsonElementIterator<>(content, Element.class)) {
+            assertTrue(elements.hasNext());
+            assertEquals("one", elements.next().getValue());
+            assertThrows(UncheckedIOException.class, elements::hasNext);
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Element {
+
+        private String value;
+    }
+}
@@ -0,0 +1,51 @@
+package nl.something.client.response.converter.memo;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Murmur3HashTest {
+
+    /**
+     * Test vectors of Guava's murmur3_128 with seed 0, which prints the hash as the little-endian bytes of the first half followed by the second half
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "'', 00000000000000000000000000000000",
+        "hello, 029bbd41b3a7d8cb191dae486a901e5b",
+        "The quick brown fox jumps over the lazy dog, 6c1b07bc7bbc4be347939ac4a93c437a"
+    })
+    void hashMatchesReferenceImplementation(final String input, final String expected) {
+        final ByteBuffer buffer = ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8));
+
+        final long[] hash = Murmur3Hash.hash128(buffer, 0);
+
+        assertEquals(expected, toHex(hash));
+        assertEquals(0, buffer.position());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"hello", "The quick brown fox jumps over the lazy dog"})
+    void hashCoversOnlyTheRemainingBytes(final String input) {
+        final byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer padded = ByteBuffer.allocate(bytes.length + 3);
+        padded.position(3);
+        padded.put(bytes).position(3);
+
+        assertEquals(toHex(Murmur3Hash.hash128(ByteBuffer.wrap(bytes), 0)), toHex(Murmur3Hash.hash128(padded, 0)));
+    }
+
+    private static String toHex(final long[] hash) {
+        final ByteBuffer bytes = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN).putLong(hash[0]).putLong(hash[1]);
+        final StringBuilder hex = new StringBuilder(32);
+        for (final byte b : bytes.array()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
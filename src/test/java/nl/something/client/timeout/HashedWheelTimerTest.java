@@ -0,0 +1,83 @@
+package nl.something.client.timeout;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedWheelTimerTest {
+
+    @Test
+    void scheduledTaskFiresAfterItsDelay() throws InterruptedException {
+        try (final HashedWheelTimer timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8)) {
+            final CountDownLatch fired = new CountDownLatch(1);
+            final long start = System.nanoTime();
+            final HashedWheelTimer.Timeout timeout = timer.schedule(fired::countDown, 50, TimeUnit.MILLISECONDS);
+
+            assertTrue(fired.await(1, TimeUnit.SECONDS));
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(50L));
+            assertTrue(timeout.isExpired());
+            assertFalse(timeout.cancel());
+        }
+    }
+
+    @Test
+    void cancelledTaskNeverFires() throws InterruptedException {
+        try (final HashedWheelTimer timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8)) {
+            final AtomicBoolean fired = new AtomicBoolean();
+            final HashedWheelTimer.Timeout timeout = timer.schedule(() -> fired.set(true), 30, TimeUnit.MILLISECONDS);
+
+            assertTrue(timeout.cancel());
+            assertFalse(timeout.cancel());
+            Thread.sleep(150);
+            assertFalse(fired.get());
+            assertTrue(timeout.isCancelled());
+            assertFalse(timeout.isExpired());
+        }
+    }
+
+    @Test
+    void tasksBeyondOneTurnWaitForTheirRound() throws InterruptedException {
+        // Four buckets of 10 milliseconds, so these delays land in the same bucket one, two and three turns apart
+        try (final HashedWheelTimer timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 4)) {
+            final List<Long> delays = List.of(105L, 25L, 65L);
+            final List<Long> firedDelays = new CopyOnWriteArrayList<>();
+            final List<Long> lateness = new CopyOnWriteArrayList<>();
+            final CountDownLatch fired = new CountDownLatch(delays.size());
+            final long start = System.nanoTime();
+            for (final long delay : delays) {
+                timer.schedule(() -> {
+                    lateness.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) - delay);
+                    firedDelays.add(delay);
+                    fired.countDown();
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+
+            assertTrue(fired.await(1, TimeUnit.SECONDS));
+            assertEquals(List.of(25L, 65L, 105L), firedDelays);
+            for (final long late : lateness) {
+                assertThat(late, greaterThanOrEqualTo(0L));
+                assertThat(late, lessThan(100L));
+            }
+        }
+    }
+
+    @Test
+    void closedTimerRejectsTasks() {
+        final HashedWheelTimer timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8);
+        timer.close();
+
+        assertThrows(IllegalStateException.class, () -> timer.schedule(() -> { }, 10, TimeUnit.MILLISECONDS));
+    }
+}